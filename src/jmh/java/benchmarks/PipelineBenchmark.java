@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import graphs.CallGraph;
+import graphs.FileFacts;
+import graphs.HierarchicalClustering;
+import harness.SyntheticCorpusGenerator;
+import parsers.EclipseJDTASTParser;
+
+// Une étape du pipeline par benchmark, sur des projets synthétiques de plusieurs tailles.
+// Lancement : mvn -Pjmh verify (ou java -jar target/benchmarks.jar -prof gc -rf json)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+	@Param({"50", "200", "800"})
+	public int classes;
+
+	private Path projectPath;
+	private List<FileFacts> facts;
+	private Map<String, Map<String, Double>> couplings;
+	private CallGraph freshGraph;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		SyntheticCorpusGenerator generator = new SyntheticCorpusGenerator();
+		generator.setNbClasses(classes);
+		generator.setNbPackages(Math.max(1, classes / 20));
+		generator.setNbClusters(Math.max(1, classes / 25));
+		projectPath = Files.createTempDirectory("tp2-bench-");
+		generator.generate(projectPath);
+		facts = new ArrayList<>();
+
+		new EclipseJDTASTParser(projectPath.toString()).parseProject(new FileASTRequestor() {
+			@Override
+			public void acceptAST(String sourceFilePath, CompilationUnit cUnit) {
+				facts.add(CallGraph.extractFacts(sourceFilePath, cUnit));
+			}
+		});
+		couplings = graphFromFacts().calculateCouplingBetweenAllClasses();
+	}
+
+	// Le couplage est mis en cache par CallGraph : chaque mesure repart d'un graphe neuf
+	@Setup(Level.Invocation)
+	public void setUpGraph() {
+		freshGraph = graphFromFacts();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		SyntheticCorpusGenerator.delete(projectPath);
+	}
+
+	private CallGraph graphFromFacts() {
+		CallGraph graph = new CallGraph(projectPath.toString());
+		for (FileFacts fileFacts : facts)
+			graph.addFacts(fileFacts);
+		return graph;
+	}
+
+	@Benchmark
+	public void parseProject(Blackhole blackhole) {
+		new EclipseJDTASTParser(projectPath.toString()).parseProject(new FileASTRequestor() {
+			@Override
+			public void acceptAST(String sourceFilePath, CompilationUnit cUnit) {
+				blackhole.consume(cUnit);
+			}
+		});
+	}
+
+	@Benchmark
+	public CallGraph createCallGraph() throws IOException {
+		return CallGraph.createCallGraph(projectPath.toString());
+	}
+
+	@Benchmark
+	public Map<String, Map<String, Double>> calculateCouplingBetweenAllClasses() {
+		return freshGraph.calculateCouplingBetweenAllClasses();
+	}
+
+	@Benchmark
+	public HierarchicalClustering.Node hierarchicalClustering() {
+		return new HierarchicalClustering(couplings, false).getDendrogram();
+	}
+}
@@ -0,0 +1,272 @@
+package harness;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+
+import graphs.CallGraph;
+import graphs.FileFacts;
+import graphs.GraphSnapshot;
+import graphs.HierarchicalClustering;
+import graphs.MethodGraph;
+import graphs.ModuleIdentifier;
+import parsers.EclipseJDTASTParser;
+
+// Exécute tout le pipeline sur un projet synthétique et mesure chaque étape
+// (temps réel, pic de tas, temps de GC), puis vérifie que l'instantané relu, le couplage
+// parallèle et le mode rapide redonnent les mêmes résultats, et que les groupes plantés par
+// le générateur sont retrouvés par la classification hiérarchique. Une vérification qui
+// échoue lève une AssertionError (code de sortie non nul).
+//
+// Compilé avec les benchmarks : mvn -Pjmh package, puis
+// java -Xmx4g -cp target/benchmarks.jar harness.ScaleHarness --classes 10000 --packages 100 --clusters 200
+public class ScaleHarness {
+	/* ATTRIBUTES */
+	private static final double RECOVERY_JACCARD = 0.5;
+	private static final int REACHABILITY_QUERIES = 100;
+
+	private List<String> report = new ArrayList<>();
+
+	/* METHODS */
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = parseOptions(args);
+		SyntheticCorpusGenerator generator = new SyntheticCorpusGenerator();
+		generator.setNbClasses(Integer.parseInt(options.getOrDefault("classes", "1000")));
+		generator.setNbPackages(Integer.parseInt(options.getOrDefault("packages", "20")));
+		generator.setMethodsPerClass(Integer.parseInt(options.getOrDefault("methods", "5")));
+		generator.setCallsPerMethod(Integer.parseInt(options.getOrDefault("calls", "3")));
+		generator.setNbClusters(Integer.parseInt(options.getOrDefault("clusters", "20")));
+		generator.setIntraClusterRatio(Double.parseDouble(options.getOrDefault("intra", "0.9")));
+		generator.setSeed(Long.parseLong(options.getOrDefault("seed", "42")));
+
+		Path root = options.containsKey("out") ? Paths.get(options.get("out"))
+				: Files.createTempDirectory("tp2-corpus-");
+		try {
+			new ScaleHarness().run(generator, root);
+		} finally {
+			if (!options.containsKey("keep"))
+				SyntheticCorpusGenerator.delete(root);
+		}
+	}
+
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("--"))
+				throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+
+			String key = args[i].substring(2);
+			if (i + 1 < args.length && !args[i + 1].startsWith("--"))
+				options.put(key, args[++i]);
+			else
+				options.put(key, "true");
+		}
+
+		return options;
+	}
+
+	public void run(SyntheticCorpusGenerator generator, Path root) throws IOException {
+		Stage stage = new Stage("generate");
+		Map<String, Integer> planted = generator.generate(root);
+		stage.end();
+
+		stage = new Stage("parse");
+		List<FileFacts> facts = new ArrayList<>();
+		new EclipseJDTASTParser(root.toString()).parseProject(new FileASTRequestor() {
+			@Override
+			public void acceptAST(String sourceFilePath, CompilationUnit cUnit) {
+				facts.add(CallGraph.extractFacts(sourceFilePath, cUnit));
+			}
+		}, EclipseJDTASTParser.DEFAULT_BATCH_SIZE);
+		stage.end();
+
+		stage = new Stage("callgraph");
+		CallGraph graph = new CallGraph(root.toString());
+		for (FileFacts fileFacts : facts)
+			graph.addFacts(fileFacts);
+		facts.clear();
+		graph.getCompactInvocations();
+		stage.end();
+
+		stage = new Stage("coupling");
+		Map<String, Map<String, Double>> couplings = graph.calculateCouplingBetweenAllClasses();
+		stage.end();
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		Set<String> classNames = graph.getNormalizedClassNames();
+		stage = new Stage("coupling-x" + processors);
+		Map<String, Map<String, Double>> parallelCouplings = graph.getCouplingEngine().computeAll(classNames, processors);
+		stage.end();
+		// Même contenu et même ordre d'itération que le calcul séquentiel
+		check(parallelCouplings.toString().equals(graph.getCouplingEngine().computeAll(classNames).toString()),
+				"parallel coupling (" + processors + " threads) differs from sequential coupling");
+
+		stage = new Stage("clustering");
+		HierarchicalClustering clustering = new HierarchicalClustering(couplings, false);
+		stage.end();
+
+		stage = new Stage("modules");
+		List<Set<String>> modules = new ModuleIdentifier(couplings, false)
+				.identifyModules(clustering.getDendrogram());
+		stage.end();
+
+		// Appelants et appelés transitifs d'un échantillon de méthodes
+		stage = new Stage("reachability");
+		MethodGraph methodGraph = graph.getMethodGraph();
+		int nbQueries = (int) Math.min(REACHABILITY_QUERIES, graph.getNbMethods());
+		long reached = 0;
+		for (int i = 0; i < nbQueries; i++) {
+			int method = (int) ((long) i * methodGraph.getCallees().getNbNodes() / nbQueries);
+			reached += methodGraph.getTransitiveCallers(method).cardinality()
+					+ methodGraph.getTransitiveCallees(method).cardinality();
+		}
+		stage.end();
+
+		Path snapshot = Files.createTempFile("tp2-graph-", ".graph");
+		stage = new Stage("snapshot-save");
+		GraphSnapshot.write(graph, snapshot.toFile(), "harness");
+		stage.end();
+
+		stage = new Stage("snapshot-load");
+		CallGraph reloaded = GraphSnapshot.read(root.toString(), snapshot.toFile(), "harness");
+		stage.end();
+		long snapshotBytes = Files.size(snapshot);
+		Files.delete(snapshot);
+
+		stage = new Stage("fast-callgraph");
+		CallGraph fastGraph = CallGraph.createCallGraph(root.toString(), EclipseJDTASTParser.DEFAULT_BATCH_SIZE, false);
+		fastGraph.getCompactInvocations();
+		stage.end();
+
+		for (String line : report)
+			System.out.println(line);
+		System.out.printf("%d classes, %d methods, %d invocations, %d modules%n",
+				couplings.size(), graph.getNbMethods(), graph.getNbInvocations(), modules.size());
+		System.out.printf("Snapshot: %.1f MB%n", snapshotBytes / (1024.0 * 1024.0));
+		System.out.printf("Reachability: %d queries, %.0f methods reached on average%n",
+				nbQueries, nbQueries == 0 ? 0.0 : (double) reached / nbQueries);
+
+		check(reloaded != null, "snapshot could not be reloaded");
+		check(reloaded.getNbInvocations() == graph.getNbInvocations()
+				&& reloaded.getMethodGraph().getCallees().getNbEdges() == methodGraph.getCallees().getNbEdges()
+				&& reloaded.calculateCouplingBetweenAllClasses().equals(couplings),
+				"reloaded snapshot differs from the original graph");
+		checkResolution(graph, fastGraph);
+		checkRecovery(planted, clustering.cut(generator.getNbClusters()));
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition)
+			throw new AssertionError(message);
+	}
+
+	// Receveurs non résolus dans chaque mode, et part des invocations du mode avec
+	// bindings que le mode rapide attribue au même couple de classes : le corpus
+	// synthétique ne déclare que des variables locales typées, le mode rapide doit
+	// donc retrouver toutes les arêtes
+	private void checkResolution(CallGraph full, CallGraph fast) {
+		Map<String, Map<String, Integer>> fullInvocations = full.getInvocations();
+		Map<String, Map<String, Integer>> fastInvocations = fast.getInvocations();
+		long total = 0;
+		long matching = 0;
+
+		for (Map.Entry<String, Map<String, Integer>> row : fullInvocations.entrySet()) {
+			Map<String, Integer> fastRow = fastInvocations.getOrDefault(row.getKey(), new HashMap<>());
+			for (Map.Entry<String, Integer> cell : row.getValue().entrySet()) {
+				total += cell.getValue();
+				matching += Math.min(cell.getValue(), fastRow.getOrDefault(cell.getKey(), 0));
+			}
+		}
+
+		System.out.printf("Unresolved receivers: bindings %d/%d, fast %d/%d; fast edges matching bindings: %.1f%%%n",
+				full.getMetrics().getFailedBindings(),
+				full.getMetrics().getResolvedBindings() + full.getMetrics().getFailedBindings(),
+				fast.getMetrics().getFailedBindings(),
+				fast.getMetrics().getResolvedBindings() + fast.getMetrics().getFailedBindings(),
+				total == 0 ? 100.0 : 100.0 * matching / total);
+		check(matching == total && fast.getNbInvocations() == full.getNbInvocations(),
+				"fast mode edges differ from bindings mode edges");
+	}
+
+	// Chaque groupe planté doit avoir un cluster trouvé dont l'indice de Jaccard dépasse 0,5
+	private void checkRecovery(Map<String, Integer> planted, List<Set<String>> found) {
+		Map<Integer, Set<String>> expected = new HashMap<>();
+		for (Map.Entry<String, Integer> entry : planted.entrySet())
+			expected.computeIfAbsent(entry.getValue(), k -> new HashSet<>())
+					.add(entry.getKey().toLowerCase());
+
+		int recovered = 0;
+		double totalJaccard = 0;
+		for (Set<String> cluster : expected.values()) {
+			double best = 0;
+			for (Set<String> candidate : found)
+				best = Math.max(best, jaccard(cluster, candidate));
+			totalJaccard += best;
+			if (best >= RECOVERY_JACCARD)
+				recovered++;
+		}
+
+		System.out.printf("Planted clusters recovered: %d/%d (mean best Jaccard %.3f)%n",
+				recovered, expected.size(), totalJaccard / expected.size());
+		check(recovered == expected.size(), "planted clusters not recovered: "
+				+ recovered + "/" + expected.size());
+	}
+
+	private static double jaccard(Set<String> a, Set<String> b) {
+		int intersection = 0;
+		for (String element : a)
+			if (b.contains(element))
+				intersection++;
+
+		int union = a.size() + b.size() - intersection;
+		return union == 0 ? 0 : (double) intersection / union;
+	}
+
+	private class Stage {
+		private String name;
+		private long start;
+		private long gcStart;
+
+		public Stage(String name) {
+			this.name = name;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+				pool.resetPeakUsage();
+			this.gcStart = gcTime();
+			this.start = System.nanoTime();
+		}
+
+		public void end() {
+			long wall = System.nanoTime() - start;
+			long peakHeap = 0;
+
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+				if (pool.getType() == MemoryType.HEAP)
+					peakHeap += pool.getPeakUsage().getUsed();
+
+			report.add(String.format("%-12s wall %9.1f ms   peak heap %7.1f MB   gc %6d ms",
+					name, wall / 1e6, peakHeap / (1024.0 * 1024.0), gcTime() - gcStart));
+		}
+
+		private long gcTime() {
+			long total = 0;
+			for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+				total += Math.max(0, collector.getCollectionTime());
+			return total;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package harness;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Génère un projet Java synthétique : nbPackages paquetages, nbClasses classes réparties
+// entre eux, chacune avec methodsPerClass méthodes faisant callsPerMethod appels.
+// Les classes sont aussi réparties en nbClusters groupes « plantés » : un appel vise une
+// classe du même groupe avec la probabilité intraClusterRatio, une classe quelconque sinon.
+public class SyntheticCorpusGenerator {
+	/* ATTRIBUTES */
+	private int nbPackages = 10;
+	private int nbClasses = 200;
+	private int methodsPerClass = 5;
+	private int callsPerMethod = 3;
+	private int nbClusters = 10;
+	private double intraClusterRatio = 0.9;
+	private long seed = 42;
+
+	/* METHODS */
+	public void setNbPackages(int nbPackages) {
+		this.nbPackages = Math.max(1, nbPackages);
+	}
+
+	public void setNbClasses(int nbClasses) {
+		this.nbClasses = Math.max(1, nbClasses);
+	}
+
+	public void setMethodsPerClass(int methodsPerClass) {
+		this.methodsPerClass = Math.max(1, methodsPerClass);
+	}
+
+	public void setCallsPerMethod(int callsPerMethod) {
+		this.callsPerMethod = Math.max(0, callsPerMethod);
+	}
+
+	public void setNbClusters(int nbClusters) {
+		this.nbClusters = Math.max(1, nbClusters);
+	}
+
+	public void setIntraClusterRatio(double intraClusterRatio) {
+		this.intraClusterRatio = intraClusterRatio;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public int getNbClusters() {
+		return nbClusters;
+	}
+
+	public String getClassName(int index) {
+		return "p" + (index % nbPackages) + ".C" + index;
+	}
+
+	public int getCluster(int index) {
+		return (int) ((long) index * nbClusters / nbClasses);
+	}
+
+	// Écrit le projet sous root et renvoie le groupe planté de chaque classe (nom qualifié)
+	public Map<String, Integer> generate(Path root) throws IOException {
+		Random random = new Random(seed);
+		Map<String, Integer> plantedClusters = new LinkedHashMap<>();
+		List<List<Integer>> members = new ArrayList<>();
+
+		for (int cluster = 0; cluster < nbClusters; cluster++)
+			members.add(new ArrayList<>());
+		for (int i = 0; i < nbClasses; i++) {
+			members.get(getCluster(i)).add(i);
+			plantedClusters.put(getClassName(i), getCluster(i));
+		}
+
+		for (int i = 0; i < nbClasses; i++) {
+			List<Integer> sameCluster = members.get(getCluster(i));
+			Path file = root.resolve("p" + (i % nbPackages)).resolve("C" + i + ".java");
+			Files.createDirectories(file.getParent());
+
+			try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				writer.write("package p" + (i % nbPackages) + ";\n\n");
+				writer.write("public class C" + i + " {\n");
+
+				for (int m = 0; m < methodsPerClass; m++) {
+					writer.write("\tpublic int m" + m + "(int x) {\n");
+
+					for (int c = 0; c < callsPerMethod; c++) {
+						int callee = random.nextDouble() < intraClusterRatio
+								? sameCluster.get(random.nextInt(sameCluster.size()))
+								: random.nextInt(nbClasses);
+						String type = getClassName(callee);
+
+						writer.write("\t\t" + type + " o" + c + " = new " + type + "();\n");
+						writer.write("\t\tx += o" + c + ".m" + random.nextInt(methodsPerClass) + "(x);\n");
+					}
+					writer.write("\t\treturn x;\n\t}\n");
+				}
+				writer.write("}\n");
+			}
+		}
+
+		return plantedClusters;
+	}
+
+	public static void delete(Path root) throws IOException {
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+}
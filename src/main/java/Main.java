@@ -1,7 +1,13 @@
+import cli.BatchCLI;
 import cli.CouplingCLI;
 
 public class Main {
     public static void main(String[] args) {
+        // Avec des arguments : mode non interactif (cf. BatchCLI)
+        if (args.length > 0) {
+            System.exit(BatchCLI.run(args));
+        }
+
         //Lancement de la CLI
         CouplingCLI astServiceCLI = new CouplingCLI();
         astServiceCLI.run();
@@ -0,0 +1,343 @@
+package cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import graphs.FileFacts;
+
+// Cache disque des faits extraits par fichier, indexé par chemin et empreinte du contenu.
+// La taille et la date de modification permettent d'éviter de relire les fichiers inchangés.
+// Le cache entier est ignoré dès que l'empreinte de l'environnement (JRE, réglages du
+// parseur) ne correspond plus à celle enregistrée.
+//
+// Avec bindings, les faits d'un fichier dépendent aussi des déclarations d'autres fichiers
+// (cf. FileFacts.getDependencies) : findDependents désigne ceux à réanalyser quand un
+// fichier qui déclare l'un de ces types est modifié, ajouté ou supprimé.
+public class FactCache {
+	/* ATTRIBUTES */
+	private static final int FORMAT_VERSION = 4;
+
+	private File cacheFile;
+	private String environment;
+	private Map<String, Entry> entries = new HashMap<>();
+
+	/* CONSTRUCTOR */
+	public FactCache(File cacheFile, String environment) {
+		this.cacheFile = cacheFile;
+		this.environment = environment;
+	}
+
+	/* METHODS */
+	public static FactCache forProject(String projectPath, String parserSettings) {
+		File directory = new File(System.getProperty("user.home"), ".hai913/cache");
+		String name = hash(new File(projectPath).getAbsolutePath()
+				.getBytes(StandardCharsets.UTF_8)) + ".facts";
+		String environment = System.getProperty("java.version") + ";" + parserSettings;
+
+		return new FactCache(new File(directory, name), environment);
+	}
+
+	public File getCacheFile() {
+		return cacheFile;
+	}
+
+	// Version du JRE et réglages du parseur : des faits obtenus ailleurs sont invalides
+	public String getEnvironment() {
+		return environment;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	// Fichier inchangé d'après ses métadonnées : pas besoin de recalculer l'empreinte
+	public FileFacts get(String path, long size, long lastModified) {
+		Entry entry = entries.get(path);
+
+		if (entry != null && entry.size == size && entry.lastModified == lastModified)
+			return entry.facts;
+
+		return null;
+	}
+
+	public FileFacts get(String path, String contentHash) {
+		Entry entry = entries.get(path);
+
+		if (entry != null && entry.contentHash.equals(contentHash))
+			return entry.facts;
+
+		return null;
+	}
+
+	public void put(String path, String contentHash, long size, long lastModified, FileFacts facts) {
+		entries.put(path, new Entry(contentHash, size, lastModified, facts));
+	}
+
+	// Faits enregistrés pour ce chemin, quel que soit l'état du fichier
+	public FileFacts get(String path) {
+		Entry entry = entries.get(path);
+		return entry != null ? entry.facts : null;
+	}
+
+	public boolean remove(String path) {
+		return entries.remove(path) != null;
+	}
+
+	// Supprime les entrées des fichiers qui n'existent plus dans le projet
+	public int retainAll(Set<String> paths) {
+		int before = entries.size();
+		entries.keySet().retainAll(paths);
+		return before - entries.size();
+	}
+
+	public Set<String> getPaths() {
+		return new HashSet<>(entries.keySet());
+	}
+
+	// Fichiers dont les faits dépendent d'un type déclaré par les faits précédents
+	// (fichiers modifiés ou supprimés) ou actuels (fichiers réanalysés) ; un type apparu
+	// peut en outre résoudre un receveur qui ne l'était pas. Les fichiers réanalysés
+	// eux-mêmes sont exclus.
+	public List<String> findDependents(Collection<FileFacts> previousFacts, Collection<FileFacts> currentFacts) {
+		Set<String> changedPaths = new HashSet<>();
+		Set<String> changedTypes = new HashSet<>();
+		boolean typesAdded = false;
+
+		for (FileFacts facts : previousFacts) {
+			changedPaths.add(facts.getSourcePath());
+			changedTypes.addAll(facts.getDeclaredTypes());
+		}
+		for (FileFacts facts : currentFacts) {
+			changedPaths.add(facts.getSourcePath());
+			for (String type : facts.getDeclaredTypes())
+				typesAdded |= changedTypes.add(type);
+		}
+
+		List<String> dependents = new ArrayList<>();
+		if (changedTypes.isEmpty())
+			return dependents;
+
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			FileFacts facts = entry.getValue().facts;
+
+			if (!changedPaths.contains(entry.getKey())
+					&& (typesAdded && facts.getUnresolvedReceivers() > 0
+							|| !Collections.disjoint(facts.getDependencies(), changedTypes)))
+				dependents.add(entry.getKey());
+		}
+
+		return dependents;
+	}
+
+	public Collection<FileFacts> getAllFacts() {
+		Collection<FileFacts> facts = new ArrayList<>();
+
+		for (Entry entry : entries.values())
+			facts.add(entry.facts);
+
+		return facts;
+	}
+
+	public void invalidate() {
+		entries.clear();
+		cacheFile.delete();
+	}
+
+	public void load() throws IOException {
+		entries.clear();
+
+		if (!cacheFile.isFile())
+			return;
+
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(cacheFile)))) {
+
+			if (in.readInt() != FORMAT_VERSION || !environment.equals(in.readUTF()))
+				return;
+
+			int nbEntries = in.readInt();
+
+			for (int i = 0; i < nbEntries; i++) {
+				String path = in.readUTF();
+				String contentHash = in.readUTF();
+				long size = in.readLong();
+				long lastModified = in.readLong();
+				FileFacts facts = new FileFacts(path);
+
+				int nbMethods = in.readInt();
+				for (int j = 0; j < nbMethods; j++)
+					facts.addMethod(in.readUTF());
+
+				readInvocations(in, facts);
+				readDeclarations(in, facts);
+
+				entries.put(path, new Entry(contentHash, size, lastModified, facts));
+			}
+		} catch (IOException e) {
+			// Cache tronqué ou corrompu : on repart de zéro
+			entries.clear();
+		}
+	}
+
+	public void save() throws IOException {
+		cacheFile.getParentFile().mkdirs();
+		File tmpFile = new File(cacheFile.getPath() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(environment);
+			out.writeInt(entries.size());
+
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				FileFacts facts = entry.getValue().facts;
+				out.writeUTF(entry.getKey());
+				out.writeUTF(entry.getValue().contentHash);
+				out.writeLong(entry.getValue().size);
+				out.writeLong(entry.getValue().lastModified);
+
+				out.writeInt(facts.getMethods().size());
+				for (String method : facts.getMethods())
+					out.writeUTF(method);
+
+				writeInvocations(out, facts);
+				writeDeclarations(out, facts);
+			}
+		}
+
+		Files.move(tmpFile.toPath(), cacheFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// Les invocations en attente (mode rapide) sont marquées par leur référence de receveur,
+	// chaîne vide sinon
+	private static void writeInvocations(DataOutputStream out, FileFacts facts) throws IOException {
+		String[] receivers = new String[facts.getNbInvocations()];
+		for (int i = 0; i < facts.getNbPendingInvocations(); i++)
+			receivers[facts.getPendingInvocation(i)] = facts.getPendingReceiver(i);
+
+		out.writeInt(facts.getResolvedReceivers());
+		out.writeInt(facts.getUnresolvedReceivers());
+		out.writeInt(facts.getNbInvocations());
+		for (int i = 0; i < facts.getNbInvocations(); i++) {
+			out.writeUTF(facts.getCaller(i));
+			out.writeUTF(facts.getCallee(i));
+			out.writeUTF(receivers[i] == null ? "" : receivers[i]);
+		}
+	}
+
+	private static void readInvocations(DataInputStream in, FileFacts facts) throws IOException {
+		facts.setReceiverCounts(in.readInt(), in.readInt());
+
+		int nbInvocations = in.readInt();
+		for (int i = 0; i < nbInvocations; i++) {
+			String caller = in.readUTF();
+			String callee = in.readUTF();
+			String receiver = in.readUTF();
+
+			if (receiver.isEmpty())
+				facts.addInvocation(caller, callee);
+			else
+				facts.addPendingInvocation(caller, callee, receiver);
+		}
+	}
+
+	private static void writeDeclarations(DataOutputStream out, FileFacts facts) throws IOException {
+		out.writeUTF(facts.getPackageName());
+
+		out.writeInt(facts.getImports().size());
+		for (String importName : facts.getImports())
+			out.writeUTF(importName);
+
+		out.writeInt(facts.getDeclaredTypes().size());
+		for (String type : facts.getDeclaredTypes()) {
+			String superType = facts.getSuperTypes().get(type);
+			out.writeUTF(type);
+			out.writeUTF(superType == null ? "" : superType);
+		}
+
+		out.writeInt(facts.getFieldTypes().size());
+		for (Map.Entry<String, String> field : facts.getFieldTypes().entrySet()) {
+			out.writeUTF(field.getKey());
+			out.writeUTF(field.getValue());
+		}
+
+		out.writeInt(facts.getDependencies().size());
+		for (String dependency : facts.getDependencies())
+			out.writeUTF(dependency);
+	}
+
+	private static void readDeclarations(DataInputStream in, FileFacts facts) throws IOException {
+		facts.setPackageName(in.readUTF());
+
+		int nbImports = in.readInt();
+		for (int i = 0; i < nbImports; i++)
+			facts.addImport(in.readUTF());
+
+		int nbTypes = in.readInt();
+		for (int i = 0; i < nbTypes; i++) {
+			String type = in.readUTF();
+			String superType = in.readUTF();
+			facts.addDeclaredType(type, superType.isEmpty() ? null : superType);
+		}
+
+		int nbFields = in.readInt();
+		for (int i = 0; i < nbFields; i++)
+			facts.getFieldTypes().put(in.readUTF(), in.readUTF());
+
+		int nbDependencies = in.readInt();
+		for (int i = 0; i < nbDependencies; i++)
+			facts.addDependency(in.readUTF());
+	}
+
+	public static String hashFile(File file) throws IOException {
+		return hash(Files.readAllBytes(file.toPath()));
+	}
+
+	public static String hash(byte[] content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			StringBuilder builder = new StringBuilder();
+
+			for (byte b : digest.digest(content))
+				builder.append(String.format("%02x", b));
+
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static class Entry {
+		String contentHash;
+		long size;
+		long lastModified;
+		FileFacts facts;
+
+		public Entry(String contentHash, long size, long lastModified, FileFacts facts) {
+			this.contentHash = contentHash;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.facts = facts;
+		}
+	}
+}
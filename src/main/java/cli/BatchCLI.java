@@ -0,0 +1,658 @@
+package cli;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import exporters.GraphExporter;
+import exporters.GraphWriter;
+import graphs.CallGraph;
+import graphs.CouplingIndex;
+import graphs.HierarchicalClustering;
+import graphs.IncrementalCoupling;
+import graphs.Linkage;
+import graphs.MethodGraph;
+import graphs.ModuleIdentifier;
+import metrics.PipelineMetrics;
+import parsers.ClasspathResolver;
+import parsers.EclipseJDTASTParser;
+import utility.JsonWriter;
+import watch.WatchSession;
+
+// Mode non interactif : analyse un ou plusieurs projets dans la même JVM, sur un pool de
+// threads borné, et écrit les résultats en JSON (ou en texte). Aucun appel à Swing ni à
+// System.exit : run() renvoie le code de sortie.
+//
+// Usage : Main --project <chemin> [--project <chemin> ...] [--stages callgraph,coupling,clustering,modules]
+//              [--format json|text] [--output <répertoire>] [--threads <n>] [--coupling-threads <n>]
+//              [--no-cache] [--metrics] [--fast]
+//              [--classpath <entrées>] [--no-pom] [--watch]
+//              [--export dot,graphml,csv] [--export-graph couplings|invocations] [--min-weight <poids>]
+//              [--top-pairs <n>] [--top-dependencies <classe>,<classe>...] [--top-k <n>]
+//              [--callers <méthode>,<méthode>...] [--callees <méthode>,<méthode>...]
+public class BatchCLI {
+	/* ATTRIBUTES */
+	public static final List<String> STAGES = Arrays.asList("callgraph", "coupling", "clustering", "modules");
+	// Projets en cours ou en attente d'écriture, par thread d'analyse
+	private static final int MAX_PENDING_PER_THREAD = 2;
+
+	private List<String> projects = new ArrayList<>();
+	private Set<String> stages = new LinkedHashSet<>(STAGES);
+	private String format = "json";
+	private File outputDirectory;
+	private int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+	// Threads du calcul des lignes de couplage de chaque projet (cf. CouplingEngine)
+	private int couplingThreads = 1;
+	private boolean useCache = true;
+	private boolean printMetrics = false;
+	// Mode rapide : pas de bindings JDT, receveurs résolus par l'index des déclarations
+	private boolean resolveBindings = true;
+	// Entrées ajoutées au classpath déduit du pom.xml (séparées par File.pathSeparator)
+	private String classpath;
+	private boolean useBuildFile = true;
+	// Surveillance continue d'un seul projet (cf. WatchSession)
+	private boolean watch = false;
+	// Exports en flux du graphe de couplage ou des invocations (cf. GraphExporter)
+	private List<String> exportFormats = new ArrayList<>();
+	private String exportGraph = "couplings";
+	private double minWeight = 0.0;
+	// Requêtes sur l'index de couplage (cf. CouplingIndex) : 0 / vide pour aucune
+	private int topPairs = 0;
+	private List<String> topDependencies = new ArrayList<>();
+	private int topK = 5;
+	// Appelants / appelés transitifs des méthodes données ("Classe::methode")
+	private List<String> callers = new ArrayList<>();
+	private List<String> callees = new ArrayList<>();
+
+	/* METHODS */
+	public static int run(String[] args) {
+		BatchCLI batch = new BatchCLI();
+
+		try {
+			batch.parseArguments(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println("Erreur: " + e.getMessage());
+			printUsage();
+			return 2;
+		}
+
+		try {
+			return batch.execute();
+		} catch (IOException | InterruptedException e) {
+			e.printStackTrace();
+			return 1;
+		}
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage: --project <path> [--project <path> ...]"
+				+ " [--stages " + String.join(",", STAGES) + "]"
+				+ " [--format json|text] [--output <dir>] [--threads <n>] [--coupling-threads <n>]"
+				+ " [--no-cache] [--metrics] [--fast]"
+				+ " [--classpath <entries>] [--no-pom] [--watch]"
+				+ " [--export " + String.join(",", GraphWriter.FORMATS) + "]"
+				+ " [--export-graph " + String.join("|", GraphExporter.GRAPHS) + "] [--min-weight <w>]"
+				+ " [--top-pairs <n>] [--top-dependencies <class>,<class>...] [--top-k <n>]"
+				+ " [--callers <method>,<method>...] [--callees <method>,<method>...]");
+	}
+
+	private void parseArguments(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--project":
+					projects.add(argument(args, ++i));
+					break;
+				case "--stages":
+					stages = new LinkedHashSet<>(Arrays.asList(argument(args, ++i).split(",")));
+					if (!STAGES.containsAll(stages))
+						throw new IllegalArgumentException("étapes inconnues : " + stages);
+					break;
+				case "--format":
+					format = argument(args, ++i);
+					if (!format.equals("json") && !format.equals("text"))
+						throw new IllegalArgumentException("format inconnu : " + format);
+					break;
+				case "--output":
+					outputDirectory = new File(argument(args, ++i));
+					break;
+				case "--threads":
+					threads = Math.max(1, Integer.parseInt(argument(args, ++i)));
+					break;
+				case "--coupling-threads":
+					couplingThreads = Math.max(1, Integer.parseInt(argument(args, ++i)));
+					break;
+				case "--no-cache":
+					useCache = false;
+					break;
+				case "--metrics":
+					printMetrics = true;
+					break;
+				case "--fast":
+					resolveBindings = false;
+					break;
+				case "--classpath":
+					classpath = argument(args, ++i);
+					break;
+				case "--no-pom":
+					useBuildFile = false;
+					break;
+				case "--watch":
+					watch = true;
+					break;
+				case "--export":
+					exportFormats = Arrays.asList(argument(args, ++i).split(","));
+					if (!GraphWriter.FORMATS.containsAll(exportFormats))
+						throw new IllegalArgumentException("formats d'export inconnus : " + exportFormats);
+					break;
+				case "--export-graph":
+					exportGraph = argument(args, ++i);
+					if (!GraphExporter.GRAPHS.contains(exportGraph))
+						throw new IllegalArgumentException("graphe à exporter inconnu : " + exportGraph);
+					break;
+				case "--min-weight":
+					minWeight = Double.parseDouble(argument(args, ++i));
+					break;
+				case "--top-pairs":
+					topPairs = Math.max(0, Integer.parseInt(argument(args, ++i)));
+					break;
+				case "--top-dependencies":
+					topDependencies = Arrays.asList(argument(args, ++i).toLowerCase().split(","));
+					break;
+				case "--top-k":
+					topK = Math.max(0, Integer.parseInt(argument(args, ++i)));
+					break;
+				case "--callers":
+					callers = Arrays.asList(argument(args, ++i).split(","));
+					break;
+				case "--callees":
+					callees = Arrays.asList(argument(args, ++i).split(","));
+					break;
+				default:
+					if (args[i].startsWith("--"))
+						throw new IllegalArgumentException("option inconnue : " + args[i]);
+					projects.add(args[i]);
+			}
+		}
+
+		if (projects.isEmpty())
+			throw new IllegalArgumentException("aucun projet à analyser");
+		if (watch && projects.size() > 1)
+			throw new IllegalArgumentException("--watch ne surveille qu'un seul projet");
+
+		// Les requêtes portent sur les résultats de couplage
+		if (topPairs > 0 || !topDependencies.isEmpty())
+			stages.add("coupling");
+
+		// Chaque étape a besoin des précédentes
+		int last = -1;
+		for (String stage : stages)
+			last = Math.max(last, STAGES.indexOf(stage));
+		stages = new LinkedHashSet<>(STAGES.subList(0, last + 1));
+	}
+
+	private static String argument(String[] args, int index) {
+		if (index >= args.length)
+			throw new IllegalArgumentException("valeur manquante après " + args[index - 1]);
+		return args[index];
+	}
+
+	public int execute() throws IOException, InterruptedException {
+		if (watch)
+			return watch();
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		// Projets soumis dont le résultat n'est pas encore écrit, dans l'ordre des projets
+		Deque<Future<ProjectResult>> pending = new ArrayDeque<>();
+		int submitted = 0;
+		int failures = 0;
+
+		// Le pic de tas est celui du processus : il n'est mesuré qu'une fois pour tout le lot
+		PipelineMetrics.resetPeakHeap();
+
+		if (outputDirectory != null)
+			outputDirectory.mkdirs();
+
+		Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+		JsonWriter json = new JsonWriter(stdout);
+		if (outputDirectory == null && format.equals("json"))
+			json.beginArray();
+
+		// Les résultats sont écrits dans l'ordre des projets, dès qu'ils sont disponibles. Au
+		// plus MAX_PENDING_PER_THREAD projets par thread sont en cours ou en attente d'écriture :
+		// un résultat (graphe, couplages, clustering) est libéré dès qu'il est écrit, et la
+		// mémoire ne croît pas avec le nombre de projets du lot
+		try {
+			while (submitted < projects.size() || !pending.isEmpty()) {
+				while (submitted < projects.size() && pending.size() < MAX_PENDING_PER_THREAD * threads) {
+					String project = projects.get(submitted++);
+					pending.add(pool.submit(() -> analyze(project)));
+				}
+
+				failures += writeResult(pending.poll(), stdout, json);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		if (outputDirectory == null && format.equals("json"))
+			json.endArray();
+		stdout.write(System.lineSeparator());
+		stdout.flush();
+
+		if (printMetrics)
+			System.err.printf("Pic de tas du lot : %.1f Mo%n", PipelineMetrics.getPeakHeapBytes() / (1024.0 * 1024.0));
+
+		return failures == 0 ? 0 : 1;
+	}
+
+	// 1 si l'analyse du projet a échoué
+	private int writeResult(Future<ProjectResult> future, Writer stdout, JsonWriter json)
+			throws IOException, InterruptedException {
+		ProjectResult result;
+		try {
+			result = future.get();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+
+		// Le résumé part sur la sortie d'erreur pour ne pas polluer le JSON
+		if (printMetrics && result.graph != null) {
+			System.err.println("Projet : " + result.project);
+			result.graph.getMetrics().printSummary(System.err);
+		}
+
+		if (outputDirectory == null) {
+			write(result, stdout, json);
+		} else {
+			File file = new File(outputDirectory, result.getFileName() + (format.equals("json") ? ".json" : ".txt"));
+			try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				write(result, writer, new JsonWriter(writer));
+			}
+		}
+
+		return result.error != null ? 1 : 0;
+	}
+
+	private static String getSourcePath(String project) {
+		return new File(project, "src").isDirectory() ? new File(project, "src").getPath() : project;
+	}
+
+	private ClasspathResolver createClasspathResolver(String sourcePath) {
+		ClasspathResolver resolver = new ClasspathResolver(sourcePath);
+		resolver.setUseBuildFile(useBuildFile);
+		if (classpath != null)
+			resolver.addEntries(classpath);
+		return resolver;
+	}
+
+	// Mode surveillance : après l'analyse initiale, chaque lot de fichiers modifiés produit
+	// une ligne (objet JSON ou texte) avec les seules lignes de couplage qui ont changé.
+	// S'arrête avec le processus (Ctrl+C) ; le cache des faits est alors enregistré.
+	private int watch() throws IOException, InterruptedException {
+		String sourcePath = getSourcePath(projects.get(0));
+		Writer stdout = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+		WatchSession session = new WatchSession(sourcePath, resolveBindings, createClasspathResolver(sourcePath));
+		try {
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					session.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}));
+			System.err.println("Surveillance de " + sourcePath + " : " + session.getCouplings().size()
+					+ " classes (Ctrl+C pour arrêter)");
+
+			session.watch(update -> {
+				try {
+					writeUpdate(update, stdout);
+					stdout.flush();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} finally {
+			// Aussi appelé par le crochet d'arrêt : le cache n'est enregistré qu'une fois
+			session.close();
+		}
+
+		return 0;
+	}
+
+	private void writeUpdate(WatchSession.Update update, Writer writer) throws IOException {
+		if (format.equals("text")) {
+			writer.write(String.format("%d fichier(s) modifié(s), %d supprimé(s), %d ligne(s) de couplage changée(s) en %.1f ms%n",
+					update.getModifiedFiles().size(), update.getDeletedFiles().size(),
+					update.getChangedRows().size(), update.getMillis()));
+			for (Map.Entry<String, Map<String, Double>> row : update.getChangedRows().entrySet())
+				writer.write("  " + row.getKey() + " -> " + row.getValue() + System.lineSeparator());
+			for (String className : update.getRemovedClasses())
+				writer.write("  " + className + " supprimée" + System.lineSeparator());
+			return;
+		}
+
+		JsonWriter json = new JsonWriter(writer);
+		json.beginObject();
+		json.name("millis").value(update.getMillis());
+		json.name("modified").beginArray();
+		for (String path : update.getModifiedFiles())
+			json.value(path);
+		json.endArray();
+		json.name("deleted").beginArray();
+		for (String path : update.getDeletedFiles())
+			json.value(path);
+		json.endArray();
+		json.name("changedPairs").beginArray();
+		for (IncrementalCoupling.PairChange change : update.getChangedPairs()) {
+			json.beginObject();
+			json.name("source").value(change.getSource());
+			json.name("destination").value(change.getDestination());
+			json.name("previous").value(change.getPreviousValue());
+			json.name("value").value(change.getValue());
+			json.endObject();
+		}
+		json.endArray();
+		json.name("changedRows").beginObject();
+		for (Map.Entry<String, Map<String, Double>> row : update.getChangedRows().entrySet()) {
+			json.name(row.getKey()).beginObject();
+			for (Map.Entry<String, Double> cell : row.getValue().entrySet())
+				json.name(cell.getKey()).value(cell.getValue());
+			json.endObject();
+		}
+		json.endObject();
+		json.name("removedClasses").beginArray();
+		for (String className : update.getRemovedClasses())
+			json.value(className);
+		json.endArray();
+		json.endObject();
+		writer.write(System.lineSeparator());
+	}
+
+	private ProjectResult analyze(String project) {
+		ProjectResult result = new ProjectResult(project);
+		String sourcePath = getSourcePath(project);
+
+		try {
+			long start = System.nanoTime();
+			ClasspathResolver resolver = createClasspathResolver(sourcePath);
+
+			result.graph = useCache
+					? CallGraph.openCallGraph(sourcePath, resolveBindings, resolver)
+					: CallGraph.createCallGraph(sourcePath, EclipseJDTASTParser.DEFAULT_BATCH_SIZE, resolveBindings, 
+							resolver);
+			start = result.time("callgraph", start);
+
+			if (!callers.isEmpty() || !callees.isEmpty()) {
+				MethodGraph methodGraph = result.graph.getMethodGraph();
+				for (String method : callers)
+					result.callers.put(method, methodGraph.getTransitiveCallers(method));
+				for (String method : callees)
+					result.callees.put(method, methodGraph.getTransitiveCallees(method));
+				start = result.time("reachability", start);
+			}
+
+			if (stages.contains("coupling")) {
+				result.graph.setCouplingParallelism(couplingThreads);
+				result.couplings = result.graph.calculateCouplingBetweenAllClasses();
+				start = result.time("coupling", start);
+			}
+			if (topPairs > 0 || !topDependencies.isEmpty()) {
+				query(result);
+				start = result.time("index", start);
+			}
+			if (stages.contains("clustering")) {
+				PipelineMetrics.Phase phase = result.graph.getMetrics().start("clustering");
+				try {
+					result.clustering = new HierarchicalClustering(result.couplings, false);
+				} finally {
+					phase.stop();
+				}
+				start = result.time("clustering", start);
+			}
+			if (stages.contains("modules")) {
+				PipelineMetrics.Phase phase = result.graph.getMetrics().start("modules");
+				try {
+					result.modules = new ModuleIdentifier(result.couplings, false)
+							.identifyModules(result.clustering.getDendrogram());
+				} finally {
+					phase.stop();
+				}
+				start = result.time("modules", start);
+			}
+			if (!exportFormats.isEmpty()) {
+				export(result);
+				result.time("export", start);
+			}
+		} catch (Exception e) {
+			result.error = e.toString();
+		}
+
+		return result;
+	}
+
+	private void query(ProjectResult result) {
+		CouplingIndex index;
+		PipelineMetrics.Phase phase = result.graph.getMetrics().start("index");
+		try {
+			index = new CouplingIndex(result.couplings, Math.max(topPairs, CouplingIndex.DEFAULT_MAX_PAIRS));
+		} finally {
+			phase.stop();
+		}
+
+		long start = System.nanoTime();
+		result.topPairs = index.getTopPairs(topPairs);
+		for (String className : topDependencies)
+			result.topDependencies.put(className, index.getTopDependencies(className, topK));
+		result.queryMicros = (System.nanoTime() - start) / 1e3;
+	}
+
+	// Un fichier par format, à côté des résultats (ou dans le répertoire courant)
+	private void export(ProjectResult result) throws IOException {
+		File directory = outputDirectory != null ? outputDirectory : new File(".");
+		directory.mkdirs();
+
+		for (String exportFormat : exportFormats) {
+			File file = new File(directory, result.getFileName() + "-" + exportGraph + "." + exportFormat);
+
+			try (GraphWriter writer = GraphWriter.create(exportFormat,
+					Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+				result.exports.put(file.getPath(), GraphExporter.export(result.graph, exportGraph, writer, minWeight));
+			}
+		}
+	}
+
+	private void write(ProjectResult result, Writer writer, JsonWriter json) throws IOException {
+		if (format.equals("json"))
+			writeJson(result, json);
+		else
+			writeText(result, writer);
+		writer.flush();
+	}
+
+	private void writeJson(ProjectResult result, JsonWriter json) throws IOException {
+		json.beginObject();
+		json.name("project").value(result.project);
+		if (result.error != null)
+			json.name("error").value(result.error);
+
+		json.name("timingsMs").beginObject();
+		for (Map.Entry<String, Double> timing : result.timings.entrySet())
+			json.name(timing.getKey()).value(timing.getValue());
+		json.endObject();
+
+		if (result.graph != null) {
+			json.name("methods").value(result.graph.getNbMethods());
+			json.name("invocations").value(result.graph.getNbInvocations());
+			if (printMetrics) {
+				json.name("metrics");
+				result.graph.getMetrics().writeJson(json);
+			}
+		}
+
+		if (result.couplings != null) {
+			json.name("couplings").beginObject();
+			for (Map.Entry<String, Map<String, Double>> row : result.couplings.entrySet()) {
+				json.name(row.getKey()).beginObject();
+				for (Map.Entry<String, Double> cell : row.getValue().entrySet())
+					json.name(cell.getKey()).value(cell.getValue());
+				json.endObject();
+			}
+			json.endObject();
+		}
+
+		if (result.clustering != null) {
+			// Dendrogramme à plat : feuilles, puis fusions [gauche, droite, similarité]
+			Linkage linkage = result.clustering.getLinkage();
+			json.name("dendrogram").beginObject();
+			json.name("leaves").beginArray();
+			for (int leaf = 0; leaf < linkage.getNbLeaves(); leaf++)
+				json.value(linkage.getLeaf(leaf));
+			json.endArray();
+			json.name("merges").beginArray();
+			for (int merge = 0; merge < linkage.getNbMerges(); merge++) {
+				json.beginArray().value(linkage.getLeft(merge)).value(linkage.getRight(merge))
+						.value(linkage.getSimilarity(merge)).endArray();
+			}
+			json.endArray();
+			json.endObject();
+		}
+
+		writeReachability(json, "callers", result.callers);
+		writeReachability(json, "callees", result.callees);
+
+		if (result.topPairs != null) {
+			json.name("queryMicros").value(result.queryMicros);
+			json.name("topPairs").beginArray();
+			for (CouplingIndex.Pair pair : result.topPairs)
+				json.beginArray().value(pair.getSource()).value(pair.getDestination()).value(pair.getWeight()).endArray();
+			json.endArray();
+			json.name("topDependencies").beginObject();
+			for (Map.Entry<String, List<CouplingIndex.Pair>> dependencies : result.topDependencies.entrySet()) {
+				json.name(dependencies.getKey()).beginArray();
+				for (CouplingIndex.Pair pair : dependencies.getValue())
+					json.beginArray().value(pair.getDestination()).value(pair.getWeight()).endArray();
+				json.endArray();
+			}
+			json.endObject();
+		}
+
+		if (!result.exports.isEmpty()) {
+			json.name("exports").beginObject();
+			for (Map.Entry<String, Long> export : result.exports.entrySet())
+				json.name(export.getKey()).value(export.getValue());
+			json.endObject();
+		}
+
+		if (result.modules != null) {
+			json.name("modules").beginArray();
+			for (Set<String> module : result.modules) {
+				json.beginArray();
+				for (String className : module)
+					json.value(className);
+				json.endArray();
+			}
+			json.endArray();
+		}
+
+		json.endObject();
+	}
+
+	private static void writeReachability(JsonWriter json, String name, Map<String, Set<String>> reachability)
+			throws IOException {
+		if (reachability.isEmpty())
+			return;
+
+		json.name(name).beginObject();
+		for (Map.Entry<String, Set<String>> entry : reachability.entrySet()) {
+			json.name(entry.getKey()).beginArray();
+			for (String method : entry.getValue())
+				json.value(method);
+			json.endArray();
+		}
+		json.endObject();
+	}
+
+	private void writeText(ProjectResult result, Writer writer) throws IOException {
+		writer.write("Projet : " + result.project + System.lineSeparator());
+		if (result.error != null)
+			writer.write("  Erreur : " + result.error + System.lineSeparator());
+		if (result.graph != null)
+			writer.write("  Méthodes : " + result.graph.getNbMethods()
+					+ ", invocations : " + result.graph.getNbInvocations() + System.lineSeparator());
+		if (result.couplings != null)
+			writer.write("  Classes : " + result.couplings.size() + System.lineSeparator());
+		if (result.modules != null)
+			for (Set<String> module : result.modules)
+				writer.write("  Module : " + module + System.lineSeparator());
+		for (Map.Entry<String, Set<String>> entry : result.callers.entrySet())
+			writer.write("  Appelants de " + entry.getKey() + " (" + entry.getValue().size() + ") : "
+					+ entry.getValue() + System.lineSeparator());
+		for (Map.Entry<String, Set<String>> entry : result.callees.entrySet())
+			writer.write("  Appelés par " + entry.getKey() + " (" + entry.getValue().size() + ") : "
+					+ entry.getValue() + System.lineSeparator());
+		if (result.topPairs != null) {
+			writer.write(String.format("  Requêtes : %.1f µs%n", result.queryMicros));
+			for (CouplingIndex.Pair pair : result.topPairs)
+				writer.write("  Couple : " + pair + System.lineSeparator());
+			for (Map.Entry<String, List<CouplingIndex.Pair>> dependencies : result.topDependencies.entrySet())
+				for (CouplingIndex.Pair pair : dependencies.getValue())
+					writer.write("  Dépendance : " + pair + System.lineSeparator());
+		}
+		for (Map.Entry<String, Long> export : result.exports.entrySet())
+			writer.write("  Export : " + export.getKey() + " (" + export.getValue() + " arcs)" + System.lineSeparator());
+		for (Map.Entry<String, Double> timing : result.timings.entrySet())
+			writer.write(String.format("  %-10s %10.1f ms%n", timing.getKey(), timing.getValue()));
+	}
+
+	private static class ProjectResult {
+		String project;
+		String error;
+		Map<String, Double> timings = new LinkedHashMap<>();
+		CallGraph graph;
+		Map<String, Map<String, Double>> couplings;
+		HierarchicalClustering clustering;
+		List<Set<String>> modules;
+		// Fichier exporté -> nombre d'arcs écrits
+		Map<String, Long> exports = new LinkedHashMap<>();
+		List<CouplingIndex.Pair> topPairs;
+		Map<String, List<CouplingIndex.Pair>> topDependencies = new LinkedHashMap<>();
+		double queryMicros;
+		// Méthode -> appelants ou appelés transitifs
+		Map<String, Set<String>> callers = new LinkedHashMap<>();
+		Map<String, Set<String>> callees = new LinkedHashMap<>();
+
+		public ProjectResult(String project) {
+			this.project = project;
+		}
+
+		public long time(String stage, long start) {
+			long now = System.nanoTime();
+			timings.put(stage, (now - start) / 1e6);
+			return now;
+		}
+
+		public String getFileName() {
+			String name = new File(project).getAbsoluteFile().toPath().normalize().getFileName().toString();
+			return name + "-" + Integer.toHexString(new File(project).getAbsolutePath().hashCode());
+		}
+	}
+}
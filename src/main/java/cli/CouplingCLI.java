@@ -2,10 +2,14 @@ package cli;
 
 import graphs.CallGraph;
 import graphs.CouplingGraphVisualizer;
+import graphs.CouplingIndex;
 import graphs.HierarchicalClustering;
 import graphs.ModuleIdentifier;
 import main.AbstractMain;
+import metrics.PipelineMetrics;
+import parsers.ClasspathResolver;
 import utils.ColorHelper;
+import watch.WatchSession;
 
 import javax.swing.*;
 import java.io.BufferedReader;
@@ -14,7 +18,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import static org.fusesource.jansi.Ansi.ansi;
 
@@ -26,14 +29,15 @@ public class CouplingCLI extends AbstractMain {
 
     private static CallGraph callGraph;
     private static Map<String, Map<String, Double>> couplgins;
-    private static List<Set<String>> clusters;
+    private static CouplingIndex couplingIndex;
+    private static HierarchicalClustering.Node dendrogram;
 
     public boolean isProjectSelected() {
         return PROJECT_PATH != null;
     }
 
     public boolean areClusterDefined() {
-        return clusters != null;
+        return dendrogram != null;
     }
 
     public void run(){
@@ -62,6 +66,10 @@ public class CouplingCLI extends AbstractMain {
             System.out.println(ColorHelper.info("2. Générer couplage"));
             System.out.println(ColorHelper.info("3. Afficher clusters hierarchiques"));
             System.out.println(ColorHelper.info("4. Afficher les modules"));
+            System.out.println(ColorHelper.info("5. Vider le cache d'analyse"));
+            System.out.println(ColorHelper.info("6. Afficher les métriques de l'analyse"));
+            System.out.println(ColorHelper.info("7. Surveiller le projet (couplage mis à jour à chaque modification)"));
+            System.out.println(ColorHelper.info("8. Classes et couples les plus couplés"));
         } else {
             System.out.println(ColorHelper.info("1. Sélectionner un projet"));
         }
@@ -75,8 +83,11 @@ public class CouplingCLI extends AbstractMain {
             switch (userInput) {
                 case "1":
                     selectProject(reader);
-                    callGraph = CallGraph.createCallGraph(PROJECT_PATH);
+                    PipelineMetrics.resetPeakHeap();
+                    callGraph = CallGraph.openCallGraph(PROJECT_PATH);
                     couplgins = callGraph.calculateCouplingBetweenAllClasses();
+                    indexCouplings();
+                    dendrogram = null;
 
                     //{a={b=0.5, system.out=0.5}, b={a=0.25, system.out=0.75}, system.out={a=0.0, b=0.0}}
                     break;
@@ -92,7 +103,12 @@ public class CouplingCLI extends AbstractMain {
 
                 case "3":
                     if (isProjectSelected()) {
-                        new HierarchicalClustering(couplgins);
+                        PipelineMetrics.Phase phase = callGraph.getMetrics().start("clustering");
+                        try {
+                            dendrogram = new HierarchicalClustering(couplgins).getDendrogram();
+                        } finally {
+                            phase.stop();
+                        }
                     } else {
                         System.err.println(ColorHelper.error("Erreur: Aucun projet sélectionné."));
                     }
@@ -102,7 +118,50 @@ public class CouplingCLI extends AbstractMain {
                     if (isProjectSelected() && areClusterDefined()) {
                         ModuleIdentifier moduleIdentification = new ModuleIdentifier(couplgins);
 
-                        moduleIdentification.identifyModules(clusters);
+                        PipelineMetrics.Phase phase = callGraph.getMetrics().start("modules");
+                        try {
+                            moduleIdentification.identifyModules(dendrogram);
+                        } finally {
+                            phase.stop();
+                        }
+                    } else if (isProjectSelected()) {
+                        System.err.println(ColorHelper.error("Erreur: Générez d'abord les clusters hierarchiques (3)."));
+                    } else {
+                        System.err.println(ColorHelper.error("Erreur: Aucun projet sélectionné."));
+                    }
+                    break;
+
+                case "5":
+                    if (isProjectSelected()) {
+                        CallGraph.getFactCache(PROJECT_PATH).invalidate();
+                        CallGraph.getSnapshotFile(PROJECT_PATH).delete();
+                        System.out.println(ColorHelper.warning("Cache d'analyse vidé pour : " + PROJECT_PATH));
+                    } else {
+                        System.err.println(ColorHelper.error("Erreur: Aucun projet sélectionné."));
+                    }
+                    break;
+
+                case "6":
+                    if (isProjectSelected()) {
+                        callGraph.getMetrics().printSummary(System.out);
+                        System.out.printf("Pic de tas depuis l'ouverture du projet : %.1f Mo%n",
+                                PipelineMetrics.getPeakHeapBytes() / (1024.0 * 1024.0));
+                    } else {
+                        System.err.println(ColorHelper.error("Erreur: Aucun projet sélectionné."));
+                    }
+                    break;
+
+                case "7":
+                    if (isProjectSelected()) {
+                        watchProject(reader);
+                    } else {
+                        System.err.println(ColorHelper.error("Erreur: Aucun projet sélectionné."));
+                    }
+                    break;
+
+                case "8":
+                    if (isProjectSelected()) {
+                        queryCouplings(reader);
                     } else {
                         System.err.println(ColorHelper.error("Erreur: Aucun projet sélectionné."));
                     }
@@ -122,6 +181,79 @@ public class CouplingCLI extends AbstractMain {
     }
 
 
+    // Surveillance du projet jusqu'à ce que l'utilisateur appuie sur Entrée : seuls les
+    // fichiers modifiés sont réanalysés et les lignes de couplage changées sont affichées
+    private void watchProject(BufferedReader reader) throws IOException {
+        WatchSession session = new WatchSession(PROJECT_PATH, true, new ClasspathResolver(PROJECT_PATH));
+        Thread watcher = new Thread(() -> {
+            try {
+                session.watch(this::printUpdate);
+            } catch (IOException | InterruptedException e) {
+                e.printStackTrace();
+            }
+        }, "watch");
+        watcher.start();
+        System.out.println(ColorHelper.warning("Surveillance de " + PROJECT_PATH + " (Entrée pour arrêter)"));
+
+        reader.readLine();
+        session.stop();
+        try {
+            watcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        session.close();
+
+        callGraph = session.getGraph();
+        couplgins = session.getCouplings();
+        indexCouplings();
+        dendrogram = null;
+    }
+
+    private void indexCouplings() {
+        PipelineMetrics.Phase phase = callGraph.getMetrics().start("index");
+        try {
+            couplingIndex = new CouplingIndex(couplgins);
+        } finally {
+            phase.stop();
+        }
+    }
+
+    // Dépendances les plus fortes d'une classe, ou couples les plus couplés du projet
+    private void queryCouplings(BufferedReader reader) throws IOException {
+        System.out.println("Classe (vide pour les couples les plus couplés) : ");
+        String className = reader.readLine();
+        className = className == null ? "" : className.trim().toLowerCase(); // noms normalisés
+
+        if (!className.isEmpty() && !couplingIndex.contains(className)) {
+            System.err.println(ColorHelper.error("Erreur: Classe inconnue : " + className));
+            return;
+        }
+
+        System.out.println("Nombre de résultats : ");
+        int k = inputProcessor.process();
+
+        long start = System.nanoTime();
+        List<CouplingIndex.Pair> results = className.isEmpty()
+                ? couplingIndex.getTopPairs(k) : couplingIndex.getTopDependencies(className, k);
+        long nanos = System.nanoTime() - start;
+
+        for (CouplingIndex.Pair pair : results)
+            System.out.println(ColorHelper.info("  " + pair));
+        System.out.println(ColorHelper.warning(String.format("%d résultat(s) en %.1f µs", results.size(), nanos / 1e3)));
+    }
+
+    private void printUpdate(WatchSession.Update update) {
+        System.out.println(ColorHelper.warning(String.format("%d fichier(s) modifié(s), %d supprimé(s) : %d ligne(s) de couplage changée(s) en %.1f ms",
+                update.getModifiedFiles().size(), update.getDeletedFiles().size(),
+                update.getChangedRows().size(), update.getMillis())));
+
+        for (Map.Entry<String, Map<String, Double>> row : update.getChangedRows().entrySet())
+            System.out.println(ColorHelper.info("  " + row.getKey() + " -> " + row.getValue()));
+        for (String className : update.getRemovedClasses())
+            System.out.println(ColorHelper.info("  " + className + " supprimée"));
+    }
+
     // Méthode pour sélectionner le projet
     private void selectProject(BufferedReader reader) throws IOException {
         System.out.println("");
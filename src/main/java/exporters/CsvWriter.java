@@ -0,0 +1,58 @@
+package exporters;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Liste d'arcs "source,destination,weight" (RFC 4180) ; les nœuds ne sont pas écrits
+public class CsvWriter extends GraphWriter {
+	/* CONSTRUCTOR */
+	public CsvWriter(Writer writer) {
+		super(writer);
+	}
+
+	/* METHODS */
+	@Override
+	public String getExtension() {
+		return "csv";
+	}
+
+	@Override
+	public void begin(String name, boolean directed) throws IOException {
+		writer.write("source,destination,weight\n");
+	}
+
+	@Override
+	public void node(String id) {
+	}
+
+	@Override
+	public void edge(String source, String destination, double weight) throws IOException {
+		writeField(source);
+		writer.write(',');
+		writeField(destination);
+		writer.write(',');
+		writer.write(formatWeight(weight));
+		writer.write('\n');
+	}
+
+	@Override
+	public void end() {
+	}
+
+	private void writeField(String value) throws IOException {
+		boolean quoted = false;
+		for (int i = 0; i < value.length() && !quoted; i++) {
+			char c = value.charAt(i);
+			quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+
+		if (!quoted) {
+			writer.write(value);
+			return;
+		}
+
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+}
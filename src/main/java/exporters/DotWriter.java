@@ -0,0 +1,63 @@
+package exporters;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Format Graphviz : le poids figure en libellé de chaque arc
+public class DotWriter extends GraphWriter {
+	/* ATTRIBUTES */
+	private String arrow;
+
+	/* CONSTRUCTOR */
+	public DotWriter(Writer writer) {
+		super(writer);
+	}
+
+	/* METHODS */
+	@Override
+	public String getExtension() {
+		return "dot";
+	}
+
+	@Override
+	public void begin(String name, boolean directed) throws IOException {
+		arrow = directed ? " -> " : " -- ";
+		writer.write(directed ? "digraph " : "graph ");
+		writeId(name);
+		writer.write(" {\n");
+	}
+
+	@Override
+	public void node(String id) throws IOException {
+		writer.write("  ");
+		writeId(id);
+		writer.write(";\n");
+	}
+
+	@Override
+	public void edge(String source, String destination, double weight) throws IOException {
+		writer.write("  ");
+		writeId(source);
+		writer.write(arrow);
+		writeId(destination);
+		writer.write(" [label=\"");
+		writer.write(formatWeight(weight));
+		writer.write("\"];\n");
+	}
+
+	@Override
+	public void end() throws IOException {
+		writer.write("}\n");
+	}
+
+	private void writeId(String id) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+			if (c == '"' || c == '\\')
+				writer.write('\\');
+			writer.write(c);
+		}
+		writer.write('"');
+	}
+}
@@ -0,0 +1,108 @@
+package exporters;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import graphs.CallGraph;
+import graphs.CompactGraph;
+import graphs.CouplingEngine;
+import graphs.SymbolTable;
+
+// Export des graphes d'un CallGraph vers un GraphWriter. Les arcs sont lus directement dans
+// les graphes compacts (CSR) et écrits un à un : aucune Map de couplage ni graphe GraphStream
+// n'est construit, la mémoire utilisée ne dépend pas du nombre d'arcs exportés.
+//   couplings   : couplage(A, B) entre classes normalisées (cf. CouplingEngine), orienté
+//   invocations : nombre d'invocations entre classes, avant fusion des noms
+// Seuls les arcs de poids supérieur ou égal à minWeight sont écrits ; renvoie leur nombre.
+public class GraphExporter {
+	/* ATTRIBUTES */
+	public static final List<String> GRAPHS = Arrays.asList("couplings", "invocations");
+
+	/* METHODS */
+	public static long export(CallGraph graph, String kind, GraphWriter writer, double minWeight) throws IOException {
+		switch (kind) {
+			case "couplings":
+				return writeCouplings(graph.getCouplingEngine(), writer, minWeight);
+			case "invocations":
+				return writeInvocations(graph.getClassSymbols(), graph.getCompactInvocations(), writer, minWeight);
+			default:
+				throw new IllegalArgumentException("graphe à exporter inconnu : " + kind);
+		}
+	}
+
+	public static long writeCouplings(CouplingEngine engine, GraphWriter writer, double minWeight) throws IOException {
+		SymbolTable classes = engine.getClasses();
+		CompactGraph invocations = engine.getInvocations();
+		long written = 0;
+
+		writer.begin("couplings", true);
+		for (int id = 0; id < classes.size(); id++)
+			writer.node(classes.getName(id));
+
+		for (int source = 0; source < invocations.getNbNodes(); source++) {
+			long total = engine.getOutgoingTotal(source);
+			if (total == 0)
+				continue;
+
+			for (int edge = invocations.firstEdge(source); edge < invocations.lastEdge(source); edge++) {
+				int destination = invocations.target(edge);
+				// Même calcul que CouplingEngine.computeRow
+				double coupling = invocations.weight(edge) / (double) total;
+
+				if (destination != source && coupling >= minWeight) {
+					writer.edge(classes.getName(source), classes.getName(destination), coupling);
+					written++;
+				}
+			}
+		}
+		writer.end();
+
+		return written;
+	}
+
+	// Couplages déjà calculés (cf. CallGraph.calculateCouplingBetweenAllClasses)
+	public static long writeCouplings(Map<String, Map<String, Double>> couplings, GraphWriter writer, double minWeight)
+			throws IOException {
+		long written = 0;
+
+		writer.begin("couplings", true);
+		for (String className : couplings.keySet())
+			writer.node(className);
+
+		for (Map.Entry<String, Map<String, Double>> row : couplings.entrySet()) {
+			for (Map.Entry<String, Double> cell : row.getValue().entrySet()) {
+				if (cell.getValue() >= minWeight) {
+					writer.edge(row.getKey(), cell.getKey(), cell.getValue());
+					written++;
+				}
+			}
+		}
+		writer.end();
+
+		return written;
+	}
+
+	public static long writeInvocations(SymbolTable classes, CompactGraph invocations, GraphWriter writer,
+			double minWeight) throws IOException {
+		long written = 0;
+
+		writer.begin("invocations", true);
+		for (int id = 0; id < classes.size(); id++)
+			writer.node(classes.getName(id));
+
+		for (int source = 0; source < invocations.getNbNodes(); source++) {
+			for (int edge = invocations.firstEdge(source); edge < invocations.lastEdge(source); edge++) {
+				if (invocations.weight(edge) >= minWeight) {
+					writer.edge(classes.getName(source), classes.getName(invocations.target(edge)),
+							invocations.weight(edge));
+					written++;
+				}
+			}
+		}
+		writer.end();
+
+		return written;
+	}
+}
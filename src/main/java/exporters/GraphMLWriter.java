@@ -0,0 +1,74 @@
+package exporters;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Format GraphML : le poids est une donnée "weight" (double) de chaque arc. Les nœuds
+// doivent être déclarés par node() avant les arcs qui les utilisent.
+public class GraphMLWriter extends GraphWriter {
+	/* CONSTRUCTOR */
+	public GraphMLWriter(Writer writer) {
+		super(writer);
+	}
+
+	/* METHODS */
+	@Override
+	public String getExtension() {
+		return "graphml";
+	}
+
+	@Override
+	public void begin(String name, boolean directed) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+		writer.write("  <key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"double\"/>\n");
+		writer.write("  <graph id=\"");
+		writeEscaped(name);
+		writer.write(directed ? "\" edgedefault=\"directed\">\n" : "\" edgedefault=\"undirected\">\n");
+	}
+
+	@Override
+	public void node(String id) throws IOException {
+		writer.write("    <node id=\"");
+		writeEscaped(id);
+		writer.write("\"/>\n");
+	}
+
+	@Override
+	public void edge(String source, String destination, double weight) throws IOException {
+		writer.write("    <edge source=\"");
+		writeEscaped(source);
+		writer.write("\" target=\"");
+		writeEscaped(destination);
+		writer.write("\"><data key=\"weight\">");
+		writer.write(formatWeight(weight));
+		writer.write("</data></edge>\n");
+	}
+
+	@Override
+	public void end() throws IOException {
+		writer.write("  </graph>\n</graphml>\n");
+	}
+
+	private void writeEscaped(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '&':
+					writer.write("&amp;");
+					break;
+				case '<':
+					writer.write("&lt;");
+					break;
+				case '>':
+					writer.write("&gt;");
+					break;
+				case '"':
+					writer.write("&quot;");
+					break;
+				default:
+					writer.write(c);
+			}
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package exporters;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+// Écriture d'un graphe pondéré en flux : les nœuds puis les arcs sont écrits dès qu'ils
+// sont reçus, sans modèle intermédiaire en mémoire (cf. JsonWriter).
+// Ordre des appels : begin, node*, edge*, end.
+public abstract class GraphWriter implements Closeable {
+	/* ATTRIBUTES */
+	public static final List<String> FORMATS = Arrays.asList("dot", "graphml", "csv");
+
+	protected Writer writer;
+
+	/* CONSTRUCTOR */
+	protected GraphWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/* METHODS */
+	public static GraphWriter create(String format, Writer writer) {
+		switch (format) {
+			case "dot":
+				return new DotWriter(writer);
+			case "graphml":
+				return new GraphMLWriter(writer);
+			case "csv":
+				return new CsvWriter(writer);
+			default:
+				throw new IllegalArgumentException("format d'export inconnu : " + format);
+		}
+	}
+
+	public abstract String getExtension();
+
+	public abstract void begin(String name, boolean directed) throws IOException;
+
+	public abstract void node(String id) throws IOException;
+
+	public abstract void edge(String source, String destination, double weight) throws IOException;
+
+	public abstract void end() throws IOException;
+
+	// Poids entier (nombre d'invocations) sans décimale, couplage sous sa forme la plus courte
+	protected static String formatWeight(double weight) {
+		if (weight == Math.rint(weight) && Math.abs(weight) < 1e15)
+			return Long.toString((long) weight);
+		return Double.toString(weight);
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
@@ -1,26 +1,54 @@
 package graphs;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.LongStream;
 
 import org.eclipse.jdt.core.dom.*;
 
+import cache.FactCache;
+import jfr.CollectionPassEvent;
+import jfr.FileParseEvent;
+import metrics.PipelineMetrics;
+import parsers.BatchASTRequestor;
+import parsers.ClasspathResolver;
+import parsers.EclipseJDTASTParser;
+import parsers.SourceDiscovery;
+import parsers.SourceFile;
 import processors.ASTProcessor;
-import utility.Utility;
-import visitors.ClassDeclarationsCollector;
-import visitors.MethodDeclarationsCollector;
-import visitors.MethodInvocationsCollector;
+import utility.LongIntHashMap;
+import visitors.FactsCollector;
 
 public class CallGraph extends ASTProcessor {
 	/* ATTRIBUTES */
-	private Set<String> methods = new HashSet<>();
-	private Map<String, Map<String, Integer>> invocations = new HashMap<>();
-	private Map<String, String> variableTypeMap = new HashMap<>();
+	private SymbolTable methods = new SymbolTable();
+	// Nombre de références (déclarations, appels) de chaque méthode : une méthode qui n'est
+	// plus référencée après removeFacts disparaît des méthodes du graphe
+	private int[] methodReferences = new int[16];
+	private int nbDeadMethods;
+	private SymbolTable classes = new SymbolTable();
+	// Arcs (source, destination) -> nombre d'invocations, figés en CSR à la demande
+	private LongIntHashMap edges = new LongIntHashMap();
+	private CompactGraph invocations;
+	// Arcs (appelant, appelé) entre identifiants de méthodes, figés dans methodGraph
+	private LongIntHashMap methodEdges = new LongIntHashMap();
+	private MethodGraph methodGraph;
+	private SymbolTable mergedClasses;
+	private CompactGraph mergedInvocations;
+	private CouplingEngine couplingEngine;
+	// Créé à la demande, puis tenu à jour à chaque ajout ou retrait d'invocation
+	private IncrementalCoupling incrementalCoupling;
+	// Nombre de threads du calcul des lignes de couplage (1 : séquentiel)
+	private int couplingParallelism = 1;
+	private PipelineMetrics metrics = new PipelineMetrics();
 
 	/* CONSTRUCTOR */
 	public CallGraph(String projectPath) {
@@ -28,85 +56,188 @@ public class CallGraph extends ASTProcessor {
 	}
 
 	public Set<String> getMethods() {
-		return methods;
+		if (nbDeadMethods == 0)
+			return methods.getNames();
+
+		Set<String> liveMethods = new HashSet<>();
+		for (int id = 0; id < methods.size(); id++)
+			if (methodReferences[id] > 0)
+				liveMethods.add(methods.getName(id));
+
+		return liveMethods;
 	}
 
 	public long getNbMethods() {
-		return methods.size();
+		return methods.size() - nbDeadMethods;
+	}
+
+	int[] getMethodReferences() {
+		return Arrays.copyOf(methodReferences, methods.size());
 	}
 
 	public long getNbInvocations() {
-		return invocations.keySet()
-				.stream()
-				.map(source -> invocations.get(source))
-				.map(destination -> destination.values())
-				.flatMap(Collection::stream)
-				.flatMapToLong(value -> LongStream.of((long) value))
-				.sum();
+		return getCompactInvocations().totalWeight();
 	}
 
-	public Map<String, Map<String, Integer>> getInvocations() {
+	public PipelineMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setCouplingParallelism(int couplingParallelism) {
+		this.couplingParallelism = Math.max(1, couplingParallelism);
+	}
+
+	public SymbolTable getClassSymbols() {
+		return classes;
+	}
+
+	SymbolTable getMethodSymbols() {
+		return methods;
+	}
+
+	public CompactGraph getCompactInvocations() {
+		if (invocations == null)
+			invocations = CompactGraph.build(classes.size(), getEdges());
+
 		return invocations;
 	}
 
-	public void trackObjectInstantiation(String variableName, String className) {
-		if (variableTypeMap.containsKey(variableName)) {
-			String existingType = variableTypeMap.get(variableName);
-			if (!existingType.equals(className)) {
-				variableTypeMap.put(variableName, className);
-				System.out.println("Updated variable type for " + variableName + " to " + className);
-			}
-		} else {
-			variableTypeMap.put(variableName, className);
-			System.out.println("Mapped variable " + variableName + " to class " + className);
-		}
+	// Graphe d'appel entre méthodes, pour les requêtes d'impact (appelants et appelés transitifs)
+	public MethodGraph getMethodGraph() {
+		if (methodGraph == null)
+			methodGraph = new MethodGraph(methods, CompactGraph.build(methods.size(), getMethodEdges()));
+
+		return methodGraph;
+	}
+
+	// Graphe relu d'un instantané : les arcs modifiables ne sont reconstruits qu'à la
+	// première invocation ajoutée
+	private LongIntHashMap getEdges() {
+		if (edges == null)
+			edges = toEdges(invocations);
+
+		return edges;
+	}
+
+	private LongIntHashMap getMethodEdges() {
+		if (methodEdges == null)
+			methodEdges = toEdges(methodGraph.getCallees());
+
+		return methodEdges;
+	}
+
+	private static LongIntHashMap toEdges(CompactGraph graph) {
+		LongIntHashMap edges = new LongIntHashMap(graph.getNbEdges());
+
+		for (int source = 0; source < graph.getNbNodes(); source++)
+			for (int edge = graph.firstEdge(source); edge < graph.lastEdge(source); edge++)
+				edges.put(LongIntHashMap.key(source, graph.target(edge)), graph.weight(edge));
+
+		return edges;
+	}
+
+	void restore(SymbolTable methods, int[] methodReferences, CompactGraph methodInvocations, SymbolTable classes,
+			CompactGraph invocations, SymbolTable mergedClasses, CompactGraph mergedInvocations) {
+		this.methods = methods;
+		this.methodReferences = methodReferences;
+		this.nbDeadMethods = 0;
+		for (int references : methodReferences)
+			if (references == 0)
+				nbDeadMethods++;
+		this.methodEdges = null;
+		this.methodGraph = new MethodGraph(methods, methodInvocations);
+		this.classes = classes;
+		this.edges = null;
+		this.invocations = invocations;
+		this.mergedClasses = mergedClasses;
+		this.mergedInvocations = mergedInvocations;
+		this.couplingEngine = null;
 	}
 
+	// Vue détachée des invocations, reconstruite à partir du graphe compact
+	public Map<String, Map<String, Integer>> getInvocations() {
+		CompactGraph graph = getCompactInvocations();
+		Map<String, Map<String, Integer>> view = new HashMap<>();
+
+		for (int source = 0; source < graph.getNbNodes(); source++) {
+			if (graph.outDegree(source) == 0)
+				continue;
+
+			Map<String, Integer> destinations = new HashMap<>();
+			for (int edge = graph.firstEdge(source); edge < graph.lastEdge(source); edge++)
+				destinations.put(classes.getName(graph.target(edge)), graph.weight(edge));
+			view.put(classes.getName(source), destinations);
+		}
+
+		return view;
+	}
 
 	public boolean addMethod(String method) {
-		return methods.add(method);
+		int size = methods.size();
+		int id = methods.intern(method);
+
+		if (id >= methodReferences.length)
+			methodReferences = Arrays.copyOf(methodReferences, Math.max(id + 1, 2 * methodReferences.length));
+		if (id < size && methodReferences[id] == 0)
+			nbDeadMethods--;
+
+		return methodReferences[id]++ == 0;
+	}
+
+	private void removeMethod(String method) {
+		int id = methods.getId(method);
+
+		if (id >= 0 && methodReferences[id] > 0 && --methodReferences[id] == 0)
+			nbDeadMethods++;
 	}
 
 	public boolean addMethods(Set<String> methods) {
-		return methods.addAll(methods);
+		boolean changed = false;
+
+		for (String method : methods)
+			changed |= addMethod(method);
+
+		return changed;
 	}
 
 	public void addInvocation(String source, String destination) {
 		String sourceClass = getClassNameFromMethod(source);
 		String destClass = getClassNameFromMethod(destination);
 
-		// Résoudre dynamiquement le type de source si c'est une variable
-		if (variableTypeMap.containsKey(source)) {
-			sourceClass = variableTypeMap.get(source);
-		}
-
-		// Résoudre dynamiquement le type de destination si c'est une variable
-		if (variableTypeMap.containsKey(destination)) {
-			destClass = variableTypeMap.get(destination);
-		}
-
-		if (invocations.containsKey(sourceClass)) {
-			if (invocations.get(sourceClass).containsKey(destClass)) {
-				int currentInvocations = invocations.get(sourceClass).get(destClass);
-				invocations.get(sourceClass).put(destClass, currentInvocations + 1);
-			} else {
-				invocations.get(sourceClass).put(destClass, 1);
-			}
-		} else {
-			invocations.put(sourceClass, new HashMap<>());
-			invocations.get(sourceClass).put(destClass, 1);
-		}
+		getEdges().addTo(edgeKey(sourceClass, destClass), 1);
+		getMethodEdges().addTo(methodKey(source, destination), 1);
+		if (incrementalCoupling != null)
+			incrementalCoupling.addInvocations(normalizeClassName(sourceClass), normalizeClassName(destClass), 1);
+		invalidateCompactGraphs();
 	}
 
 
 	public void addInvocation(String source, String destination, int occurrences) {
-		methods.add(source);
-		methods.add(destination);
-
-		if (!invocations.containsKey(source))
-			invocations.put(source, new HashMap<String, Integer>());
+		addMethod(source);
+		addMethod(destination);
+
+		long key = edgeKey(source, destination);
+		if (incrementalCoupling != null)
+			incrementalCoupling.addInvocations(normalizeClassName(source), normalizeClassName(destination),
+					occurrences - getEdges().get(key, 0));
+		getEdges().put(key, occurrences);
+		getMethodEdges().put(methodKey(source, destination), occurrences);
+		invalidateCompactGraphs();
+	}
 
-		invocations.get(source).put(destination, occurrences);
+	private void removeInvocation(String source, String destination) {
+		String sourceClass = getClassNameFromMethod(source);
+		String destClass = getClassNameFromMethod(destination);
+		long key = edgeKey(sourceClass, destClass);
+
+		if (getEdges().addTo(key, -1) <= 0)
+			edges.remove(key);
+		long methodKey = methodKey(source, destination);
+		if (getMethodEdges().addTo(methodKey, -1) <= 0)
+			methodEdges.remove(methodKey);
+		if (incrementalCoupling != null)
+			incrementalCoupling.addInvocations(normalizeClassName(sourceClass), normalizeClassName(destClass), -1);
+		invalidateCompactGraphs();
 	}
 
 	public void addInvocations(Map<String, Map<String, Integer>> map) {
@@ -115,8 +246,24 @@ public class CallGraph extends ASTProcessor {
 				this.addInvocation(source, destination, map.get(source).get(destination));
 	}
 
+	private long edgeKey(String source, String destination) {
+		return LongIntHashMap.key(classes.intern(source), classes.intern(destination));
+	}
+
+	private long methodKey(String source, String destination) {
+		return LongIntHashMap.key(methods.intern(source), methods.intern(destination));
+	}
+
+	private void invalidateCompactGraphs() {
+		invocations = null;
+		methodGraph = null;
+		mergedInvocations = null;
+		mergedClasses = null;
+		couplingEngine = null;
+	}
+
 
-	private String getClassNameFromMethod(String methodName) {
+	private static String getClassNameFromMethod(String methodName) {
 		// Extraire le nom de la classe à partir du nom complet de la méthode (format: className::methodName)
 		int index = methodName.indexOf("::");
 		if (index != -1) {
@@ -127,153 +274,465 @@ public class CallGraph extends ASTProcessor {
 
 	// Collecte des méthodes et invocations à partir d'un projet
 	public static CallGraph createCallGraph(String projectPath) throws IOException {
-		CallGraph graph = new CallGraph(projectPath);
+		return createCallGraph(projectPath, EclipseJDTASTParser.DEFAULT_BATCH_SIZE);
+	}
+
+	public static CallGraph createCallGraph(String projectPath, int batchSize) throws IOException {
+		return createCallGraph(projectPath, batchSize, true);
+	}
 
-		for (CompilationUnit cUnit : graph.parser.parseProject()) {
-			graph.collectMethodsAndInvocations(cUnit);
+	// Les unités sont consommées au fil de l'eau : seuls leurs faits sont conservés,
+	// la mémoire est donc bornée par un lot de batchSize fichiers.
+	// Sans bindings (mode rapide), les receveurs sont résolus par un index des
+	// déclarations du projet, construit une fois tous les fichiers analysés.
+	public static CallGraph createCallGraph(String projectPath, int batchSize, boolean resolveBindings) 
+			throws IOException {
+		return createCallGraph(projectPath, batchSize, resolveBindings, new ClasspathResolver(projectPath));
+	}
+
+	// Le classpath n'est utile qu'avec les bindings : le mode rapide ne le résout pas
+	public static CallGraph createCallGraph(String projectPath, int batchSize, boolean resolveBindings, 
+			ClasspathResolver classpath) throws IOException {
+		CallGraph graph = new CallGraph(projectPath);
+		CollectionPassEvent event = new CollectionPassEvent();
+		List<FileFacts> unresolvedFacts = new ArrayList<>();
+		event.begin();
+		graph.configureParser(resolveBindings, classpath);
+
+		PipelineMetrics.Phase parse = graph.metrics.start("parse");
+		try {
+			graph.parser.parseProject(graph.new TimedRequestor() {
+				@Override
+				protected void accept(String sourceFilePath, FileFacts facts) {
+					if (resolveBindings)
+						graph.addFacts(facts);
+					else
+						unresolvedFacts.add(facts);
+				}
+			}, batchSize);
+		} finally {
+			parse.stop();
 		}
 
+		graph.addResolvedFacts(unresolvedFacts);
+		graph.commit(event, false);
 		return graph;
 	}
 
-	// Collecte des méthodes et des invocations d'une unité de compilation
-	private void collectMethodsAndInvocations(CompilationUnit cUnit) {
-		ClassDeclarationsCollector classCollector = new ClassDeclarationsCollector();
-		cUnit.accept(classCollector);
+	public static CallGraph createCallGraph(String projectPath, FactCache cache) throws IOException {
+		return createCallGraph(projectPath, cache, true);
+	}
+
+	// Analyse incrémentale : seuls les fichiers ajoutés ou modifiés depuis la dernière
+	// exécution sont analysés, les autres faits sont relus depuis le cache. En mode
+	// rapide, le cache conserve les receveurs non résolus : l'index est reconstruit à
+	// chaque fois, un fichier modifié pouvant changer la résolution des autres. Avec
+	// bindings, les fichiers qui dépendent des types déclarés par les fichiers modifiés,
+	// ajoutés ou supprimés sont réanalysés aussi (cf. FactCache.findDependents).
+	public static CallGraph createCallGraph(String projectPath, FactCache cache, boolean resolveBindings) 
+			throws IOException {
+		return createCallGraph(projectPath, cache, resolveBindings, new ClasspathResolver(projectPath));
+	}
+
+	public static CallGraph createCallGraph(String projectPath, FactCache cache, boolean resolveBindings, 
+			ClasspathResolver classpath) throws IOException {
+		CallGraph graph = new CallGraph(projectPath);
+		graph.configureParser(resolveBindings, classpath);
+		CollectionPassEvent event = new CollectionPassEvent();
+		event.begin();
+		Map<String, SourceFile> sourceFiles = new HashMap<>();
+		Map<String, String> contentHashes = new HashMap<>();
+		List<String> modifiedFiles = new ArrayList<>();
+		// Faits enregistrés des fichiers modifiés ou supprimés
+		List<FileFacts> previousFacts = new ArrayList<>();
+
+		cache.load();
+
+		for (SourceFile sourceFile : graph.parser.discoverJavaProjectFiles()) {
+			String path = sourceFile.getPath().toString();
+			sourceFiles.put(path, sourceFile);
+
+			if (cache.get(path, sourceFile.getSize(), sourceFile.getLastModified()) != null)
+				continue;
+
+			// Métadonnées modifiées : on compare le contenu avant de réanalyser
+			String contentHash = FactCache.hashFile(sourceFile.toFile());
+			FileFacts facts = cache.get(path, contentHash);
+
+			if (facts != null) {
+				cache.put(path, contentHash, sourceFile.getSize(), sourceFile.getLastModified(), facts);
+			} else {
+				contentHashes.put(path, contentHash);
+				modifiedFiles.add(path);
+				if (cache.get(path) != null)
+					previousFacts.add(cache.get(path));
+			}
+		}
+
+		for (String path : cache.getPaths())
+			if (!sourceFiles.containsKey(path))
+				previousFacts.add(cache.get(path));
+		cache.retainAll(sourceFiles.keySet());
+
+		graph.parseIntoCache(modifiedFiles, sourceFiles, contentHashes, cache);
+		int nbParsed = modifiedFiles.size();
+
+		if (resolveBindings) {
+			List<FileFacts> currentFacts = new ArrayList<>();
+			for (String path : modifiedFiles)
+				if (cache.get(path) != null)
+					currentFacts.add(cache.get(path));
 
-		for (TypeDeclaration cls : classCollector.getClasses()) {
-			MethodDeclarationsCollector methodCollector = new MethodDeclarationsCollector();
-			cls.accept(methodCollector);
+			// Contenu inchangé, mais des receveurs typés d'après les déclarations modifiées
+			List<String> dependents = cache.findDependents(previousFacts, currentFacts);
+			for (String path : dependents)
+				contentHashes.put(path, FactCache.hashFile(sourceFiles.get(path).toFile()));
 
-			for (MethodDeclaration method : methodCollector.getMethods()) {
-				String methodName = Utility.getMethodFullyQualifiedName(cls, method);
-				this.addMethod(methodName);
+			graph.parseIntoCache(dependents, sourceFiles, contentHashes, cache);
+			nbParsed += dependents.size();
+		}
+
+		graph.metrics.addFilesFromCache(sourceFiles.size() - nbParsed);
+		graph.addResolvedFacts(cache.getAllFacts());
+
+		cache.save();
+		graph.commit(event, true);
+		return graph;
+	}
+
+	private void parseIntoCache(List<String> paths, Map<String, SourceFile> sourceFiles,
+			Map<String, String> contentHashes, FactCache cache) {
+		int batchSize = EclipseJDTASTParser.DEFAULT_BATCH_SIZE;
+		for (int start = 0; start < paths.size(); start += batchSize) {
+			List<String> batch = paths.subList(start, Math.min(start + batchSize, paths.size()));
+
+			PipelineMetrics.Phase parse = metrics.start("parse");
+			try {
+				parser.parseFiles(batch.toArray(new String[0]), new TimedRequestor() {
+					@Override
+					protected void accept(String sourceFilePath, FileFacts facts) {
+						SourceFile sourceFile = sourceFiles.get(sourceFilePath);
+						cache.put(sourceFilePath, contentHashes.get(sourceFilePath), sourceFile.getSize(),
+								sourceFile.getLastModified(), facts);
+					}
+				});
+			} finally {
+				parse.stop();
+			}
+		}
+	}
 
-				// Collecte des invocations de méthode
-				MethodInvocationsCollector invocationCollector = new MethodInvocationsCollector();
-				this.addInvocations(cls, method, methodName, invocationCollector);
-				this.addSuperInvocations(methodName, invocationCollector);
+	private void configureParser(boolean resolveBindings, ClasspathResolver classpath) throws IOException {
+		parser.setResolveBindings(resolveBindings);
+		metrics.setMode(resolveBindings ? "bindings" : "rapide");
+
+		if (resolveBindings) {
+			PipelineMetrics.Phase phase = metrics.start("classpath");
+			try {
+				classpath.configure(parser);
+			} finally {
+				phase.stop();
 			}
 		}
 	}
 
-	private void addInvocations(TypeDeclaration cls, MethodDeclaration method,
-								String methodName, MethodInvocationsCollector invocationCollector) {
-		method.accept(invocationCollector);
+	public static FactCache getFactCache(String projectPath) throws IOException {
+		return getFactCache(projectPath, true);
+	}
+
+	public static FactCache getFactCache(String projectPath, boolean resolveBindings) throws IOException {
+		return getFactCache(projectPath, resolveBindings, new ClasspathResolver(projectPath));
+	}
+
+	// Seule l'empreinte du classpath est calculée : les sources ne sont pas relues
+	public static FactCache getFactCache(String projectPath, boolean resolveBindings, ClasspathResolver classpath) 
+			throws IOException {
+		EclipseJDTASTParser parser = new EclipseJDTASTParser(projectPath);
+		parser.setResolveBindings(resolveBindings);
+		if (resolveBindings)
+			parser.setClasspathKey(classpath.getKey());
+		return FactCache.forProject(projectPath, parser.getSettings());
+	}
+
+	public static CallGraph openCallGraph(String projectPath) throws IOException {
+		return openCallGraph(projectPath, true, new ClasspathResolver(projectPath));
+	}
+
+	// Graphe relu depuis son instantané si aucun fichier source n'a changé (chemins, tailles,
+	// dates) et que les réglages du parseur sont les mêmes ; sinon reconstruit à partir du
+	// cache des faits, puis enregistré pour la prochaine ouverture
+	public static CallGraph openCallGraph(String projectPath, boolean resolveBindings, ClasspathResolver classpath) 
+			throws IOException {
+		FactCache cache = getFactCache(projectPath, resolveBindings, classpath);
+		List<SourceFile> sourceFiles = new SourceDiscovery(projectPath).discover();
+		StringBuilder fingerprint = new StringBuilder(cache.getEnvironment());
+		for (SourceFile sourceFile : sourceFiles)
+			fingerprint.append('\n').append(sourceFile.getPath()).append(';').append(sourceFile.getSize())
+					.append(';').append(sourceFile.getLastModified());
+
+		String key = FactCache.hash(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+		File snapshotFile = getSnapshotFile(projectPath);
+		PipelineMetrics metrics = new PipelineMetrics();
+		CallGraph graph;
+
+		PipelineMetrics.Phase phase = metrics.start("snapshot");
+		try {
+			graph = GraphSnapshot.read(projectPath, snapshotFile, key);
+		} finally {
+			phase.stop();
+		}
+
+		if (graph != null) {
+			graph.metrics = metrics;
+			metrics.setMode(resolveBindings ? "bindings" : "rapide");
+			metrics.addFilesFromCache(sourceFiles.size());
+			return graph;
+		}
+
+		graph = createCallGraph(projectPath, cache, resolveBindings, classpath);
+		GraphSnapshot.write(graph, snapshotFile, key);
+		return graph;
+	}
+
+	public static File getSnapshotFile(String projectPath) {
+		File cacheFile = FactCache.forProject(projectPath, "").getCacheFile();
+		return new File(cacheFile.getParentFile(), cacheFile.getName().replace(".facts", ".graph"));
+	}
+
+	// Les faits qui attendent une résolution (mode rapide) passent par l'index des déclarations
+	private void addResolvedFacts(Collection<FileFacts> allFacts) {
+		PipelineMetrics.Phase graphPhase = metrics.start("graph");
+		try {
+			DeclarationIndex index = DeclarationIndex.build(allFacts);
+
+			for (FileFacts facts : allFacts)
+				addFacts(index.resolve(facts));
+		} finally {
+			graphPhase.stop();
+		}
+	}
+
+	public void addFacts(FileFacts facts) {
+		metrics.addEdges(facts.getNbInvocations());
+		metrics.addBindings(facts.getResolvedReceivers(), facts.getUnresolvedReceivers());
+
+		for (String method : facts.getMethods())
+			this.addMethod(method);
+
+		for (int i = 0; i < facts.getNbInvocations(); i++) {
+			this.addMethod(facts.getCallee(i));
+			this.addInvocation(facts.getCaller(i), facts.getCallee(i));
+		}
+	}
+
+	// Inverse de addFacts : les mêmes faits doivent avoir été ajoutés auparavant
+	public void removeFacts(FileFacts facts) {
+		for (String method : facts.getMethods())
+			this.removeMethod(method);
+
+		for (int i = 0; i < facts.getNbInvocations(); i++) {
+			this.removeMethod(facts.getCallee(i));
+			this.removeInvocation(facts.getCaller(i), facts.getCallee(i));
+		}
+	}
+
+	// Réanalyse de quelques fichiers avec les réglages du graphe (mode surveillance) : les
+	// faits sont rendus par chemin, sans modifier le graphe ni résoudre les receveurs en attente
+	public Map<String, FileFacts> extractFacts(List<String> sourcePaths) {
+		Map<String, FileFacts> extracted = new HashMap<>();
+
+		PipelineMetrics.Phase parse = metrics.start("parse");
+		try {
+			parser.parseFiles(sourcePaths.toArray(new String[0]), new TimedRequestor() {
+				@Override
+				protected void accept(String sourceFilePath, FileFacts facts) {
+					extracted.put(sourceFilePath, facts);
+				}
+			});
+		} finally {
+			parse.stop();
+		}
+
+		return extracted;
+	}
 
-		for (MethodInvocation invocation : invocationCollector.getMethodInvocations()) {
-			String invocationName = getMethodInvocationName(cls, invocation);
-			this.addMethod(invocationName);
-			this.addInvocation(methodName, invocationName);
+	private FileFacts extractTimedFacts(String sourcePath, CompilationUnit cUnit) {
+		PipelineMetrics.Phase visit = metrics.start("visit");
+		try {
+			return extractFacts(sourcePath, cUnit);
+		} finally {
+			visit.stop();
 		}
 	}
 
-	private String getMethodInvocationName(TypeDeclaration cls, MethodInvocation invocation) {
-		Expression expr = invocation.getExpression();
-		String invocationName = "";
+	// createASTs analyse d'abord tout le lot puis résout chaque unité avant de la livrer :
+	// le temps d'un fichier est celui de sa résolution, plus sa part (au prorata de sa
+	// taille) de l'analyse syntaxique du lot
+	private abstract class TimedRequestor extends BatchASTRequestor {
+		private long batchStart;
+		private long batchBytes;
+		private long syntaxNanos = -1;
+		private long last;
+
+		@Override
+		public void beginBatch(String[] sourcePaths) {
+			batchBytes = 0;
+			for (String path : sourcePaths)
+				batchBytes += new File(path).length();
+			syntaxNanos = -1;
+			batchStart = System.nanoTime();
+		}
 
-		if (expr != null) {
-			ITypeBinding type = expr.resolveTypeBinding();
+		@Override
+		public final void acceptAST(String sourceFilePath, CompilationUnit cUnit) {
+			long now = System.nanoTime();
+			long size = new File(sourceFilePath).length();
+			long nanos;
 
-			if (type != null)
-				invocationName = type.getQualifiedName() + "::" + invocation.getName().toString();
-			else
-				invocationName = expr + "::" + invocation.getName().toString();
-		} else {
-			invocationName = Utility.getClassFullyQualifiedName(cls)
-					+ "::" + invocation.getName().toString();
+			if (syntaxNanos < 0) {
+				// Premier fichier du lot : on ne sait pas séparer sa résolution de l'analyse syntaxique
+				syntaxNanos = now - batchStart;
+				nanos = 0;
+			} else {
+				nanos = now - last;
+			}
+			if (batchBytes > 0)
+				nanos += syntaxNanos * size / batchBytes;
+
+			metrics.recordFile(sourceFilePath, size, nanos);
+
+			FileParseEvent event = new FileParseEvent();
+			event.begin();
+			FileFacts facts = extractTimedFacts(sourceFilePath, cUnit);
+			accept(sourceFilePath, facts);
+			event.end();
+
+			if (event.shouldCommit()) {
+				event.path = sourceFilePath;
+				event.size = size;
+				event.parseTime = nanos;
+				event.resolvedBindings = facts.getResolvedReceivers();
+				event.unresolvedBindings = facts.getUnresolvedReceivers();
+				event.invocations = facts.getNbInvocations();
+				event.commit();
+			}
+			last = System.nanoTime();
 		}
 
-		return invocationName;
+		protected abstract void accept(String sourceFilePath, FileFacts facts);
 	}
 
-	private void addSuperInvocations(String methodName, MethodInvocationsCollector invocationCollector) {
-		for (SuperMethodInvocation superInvocation : invocationCollector.getSuperMethodInvocations()) {
-			String superInvocationName = superInvocation.getName().getFullyQualifiedName();
-			this.addMethod(superInvocationName);
-			this.addInvocation(methodName, superInvocationName);
+	private void commit(CollectionPassEvent event, boolean incremental) {
+		event.end();
+
+		if (event.shouldCommit()) {
+			event.project = parser.getProjectPath();
+			event.incremental = incremental;
+			event.filesParsed = metrics.getFilesParsed();
+			event.filesFromCache = metrics.getFilesFromCache();
+			event.methods = getNbMethods();
+			event.invocations = metrics.getEdgesAdded();
+			event.commit();
 		}
 	}
 
+	// Collecte des méthodes et des invocations d'une unité de compilation, en un seul parcours
+	public static FileFacts extractFacts(String sourcePath, CompilationUnit cUnit) {
+		FileFacts facts = new FileFacts(sourcePath);
+		cUnit.accept(new FactsCollector(facts));
+		return facts;
+	}
+
+	// Classe normalisée (cf. getNormalizedClassNames) d'une méthode "Classe::methode"
+	public static String getNormalizedClassName(String method) {
+		return normalizeClassName(getClassNameFromMethod(method));
+	}
+
 	// Méthode pour normaliser les noms de classes en minuscule
-	private String normalizeClassName(String className) {
+	private static String normalizeClassName(String className) {
 		return className.toLowerCase(); // On choisit de normaliser tout en minuscule
 	}
 
-	// Méthode pour fusionner les invocations de deux classes ayant des noms similaires
-	private void mergeClassInvocations(Map<String, Map<String, Integer>> invocations) {
-		Map<String, Map<String, Integer>> mergedInvocations = new HashMap<>();
+	// Méthode pour fusionner les invocations de deux classes ayant des noms similaires.
+	// Le résultat est un second graphe compact : les invocations d'origine sont conservées.
+	private void mergeClassInvocations() {
+		if (mergedInvocations != null)
+			return;
+
+		CompactGraph graph = getCompactInvocations();
+		SymbolTable normalizedClasses = new SymbolTable();
+		LongIntHashMap mergedEdges = new LongIntHashMap(graph.getNbEdges());
+
+		for (int source = 0; source < graph.getNbNodes(); source++) {
+			if (graph.outDegree(source) == 0)
+				continue;
 
-		for (String sourceClass : invocations.keySet()) {
-			String normalizedSource = normalizeClassName(sourceClass);
+			int normalizedSource = normalizedClasses.intern(normalizeClassName(classes.getName(source)));
 
 			// Fusionner les invocations pour les classes similaires
-			for (String destinationClass : invocations.get(sourceClass).keySet()) {
-				String normalizedDestination = normalizeClassName(destinationClass);
+			for (int edge = graph.firstEdge(source); edge < graph.lastEdge(source); edge++) {
+				int normalizedDestination = normalizedClasses.intern(
+						normalizeClassName(classes.getName(graph.target(edge))));
 
 				// Si la classe source et la destination sont similaires (casse différente), on fusionne
-				if (!normalizedSource.equals(normalizedDestination)) {
-					// Fusionner ou ajouter l'invocation selon les cas
-					mergedInvocations.computeIfAbsent(normalizedSource, k -> new HashMap<>())
-							.merge(normalizedDestination, invocations.get(sourceClass).get(destinationClass), Integer::sum);
-				}
+				if (normalizedSource != normalizedDestination)
+					mergedEdges.addTo(LongIntHashMap.key(normalizedSource, normalizedDestination), graph.weight(edge));
 			}
 		}
 
-		// Remplacer les invocations originales par les fusionnées
-		invocations.clear();
-		invocations.putAll(mergedInvocations);
+		mergedClasses = normalizedClasses;
+		mergedInvocations = CompactGraph.build(normalizedClasses.size(), mergedEdges);
 	}
 
-	// Méthode pour calculer et afficher le couplage entre les classes, après fusion
-	public Map<String, Map<String, Double>> calculateCouplingBetweenAllClasses() {
-		Map<String, Map<String, Double>> couplings = new HashMap<>();
-		mergeClassInvocations(this.invocations);  // Appel de la fusion avant de calculer le couplage
+	public CouplingEngine getCouplingEngine() {
+		mergeClassInvocations();
 
-		Set<String> allClasses = new HashSet<>();
-		// Extraire les classes à partir des méthodes
-		for (String method : methods) {
-			String className = getClassNameFromMethod(method);
-			allClasses.add(normalizeClassName(className)); // On normalise aussi ici
-		}
+		if (couplingEngine == null)
+			couplingEngine = new CouplingEngine(mergedClasses, mergedInvocations);
 
-		// Calculer le couplage entre chaque paire de classes
-		for (String classA : allClasses) {
-			Map<String, Double> associations = new HashMap<>();
-			for (String classB : allClasses) {
-				if (!classA.equals(classB)) { // Exclure le couplage d'une classe avec elle-même
-					double coupling = calculateCoupling(classA, classB);
-					//System.out.printf("Coupling between %s and %s: %.2f%n", classA, classB, coupling);
-					associations.put(classB, coupling);
-				}
-			}
-			couplings.put(classA, associations);
+		return couplingEngine;
+	}
+
+	// Couplage tenu à jour au fil de addFacts / removeFacts : IncrementalCoupling.commit rend
+	// les couples modifiés depuis l'appel précédent
+	public IncrementalCoupling getIncrementalCoupling() {
+		if (incrementalCoupling == null) {
+			mergeClassInvocations();
+			incrementalCoupling = IncrementalCoupling.build(mergedClasses, mergedInvocations);
 		}
 
-		return couplings;
+		return incrementalCoupling;
 	}
 
-	// Méthode pour calculer le couplage entre deux classes (après fusion)
-	public double calculateCoupling(String classA, String classB) {
-		int invocationsBetweenClasses = 0;
-		int totalInvocationsA = 0;
+	// Classes du projet (noms normalisés), extraites à partir des méthodes
+	public Set<String> getNormalizedClassNames() {
+		Set<String> allClasses = new HashSet<>();
 
-		for (Map.Entry<String, Map<String, Integer>> entry : invocations.entrySet()) {
-			String sourceClass = entry.getKey();
+		for (String method : getMethods()) {
+			String className = getClassNameFromMethod(method);
+			allClasses.add(normalizeClassName(className)); // On normalise aussi ici
+		}
 
-			if (sourceClass.startsWith(classA)) {
-				for (Map.Entry<String, Integer> invocation : entry.getValue().entrySet()) {
-					String destinationClass = invocation.getKey();
+		return allClasses;
+	}
 
-					if (destinationClass.startsWith(classB)) {
-						invocationsBetweenClasses += invocation.getValue();
-					}
-				}
-				totalInvocationsA += entry.getValue().values().stream().mapToInt(Integer::intValue).sum();
-			}
+	// Méthode pour calculer et afficher le couplage entre les classes, après fusion.
+	// Chaque arc n'est parcouru qu'une fois ; les couples sans invocation sont omis.
+	public Map<String, Map<String, Double>> calculateCouplingBetweenAllClasses() {
+		PipelineMetrics.Phase coupling = metrics.start("coupling");
+		try {
+			// Pas de graphe fusionné à reconstruire si le couplage est déjà tenu à jour
+			if (incrementalCoupling != null)
+				return incrementalCoupling.toMap(getNormalizedClassNames());
+			return getCouplingEngine().computeAll(getNormalizedClassNames(), couplingParallelism);
+		} finally {
+			coupling.stop();
 		}
+	}
 
-		return totalInvocationsA == 0 ? 0.0 : (double) invocationsBetweenClasses / totalInvocationsA;
+	// Méthode pour calculer le couplage entre deux classes (après fusion)
+	public double calculateCoupling(String classA, String classB) {
+		return getCouplingEngine().getCoupling(classA, classB);
 	}
 
 	// Méthode pour afficher les invocations après la fusion des classes
@@ -281,16 +740,20 @@ public class CallGraph extends ASTProcessor {
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("Static Call Graph");
-		builder.append("\nMethods: " + methods.size() + ".");
+		builder.append("\nMethods: " + getNbMethods() + ".");
 		builder.append("\nInvocations: " + getNbInvocations() + ".");
 		builder.append("\n");
 
-		for (String source : invocations.keySet()) {
-			builder.append(source + ":\n");
+		CompactGraph graph = getCompactInvocations();
+		for (int source = 0; source < graph.getNbNodes(); source++) {
+			if (graph.outDegree(source) == 0)
+				continue;
+
+			builder.append(classes.getName(source) + ":\n");
 
-			for (String destination : invocations.get(source).keySet())
-				builder.append("\t---> " + destination +
-						" (" + invocations.get(source).get(destination) + " time(s))\n");
+			for (int edge = graph.firstEdge(source); edge < graph.lastEdge(source); edge++)
+				builder.append("\t---> " + classes.getName(graph.target(edge)) +
+						" (" + graph.weight(edge) + " time(s))\n");
 			builder.append("\n");
 		}
 
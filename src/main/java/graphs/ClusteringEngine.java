@@ -0,0 +1,236 @@
+package graphs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jfr.ClusterMergeEvent;
+
+// Classification hiérarchique ascendante en O(n²) : la matrice de similarité est un
+// tableau primitif triangulaire, mis à jour par la formule de Lance–Williams (lien moyen),
+// et l'ordre des fusions est obtenu par la méthode de la chaîne des plus proches voisins.
+//
+// La similarité entre deux classes est la somme des couplages dans les deux sens ; entre
+// deux clusters, c'est la moyenne de cette somme sur tous les couples de membres.
+public class ClusteringEngine {
+	/* ATTRIBUTES */
+	private String[] names;
+	private int n;
+	// Somme des similarités entre membres, pour chaque couple de clusters actifs (i < j)
+	private double[] sums;
+	private int[] sizes;
+	private boolean[] active;
+
+	/* CONSTRUCTOR */
+	public ClusteringEngine(Collection<String> classNames, Map<String, Map<String, Double>> couplingData) {
+		this.names = classNames.toArray(new String[0]);
+		this.n = names.length;
+		this.sums = new double[(int) ((long) n * (n - 1) / 2)];
+		this.sizes = new int[n];
+		this.active = new boolean[n];
+
+		Map<String, Integer> ids = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			ids.put(names[i], i);
+			sizes[i] = 1;
+			active[i] = true;
+		}
+
+		for (int i = 0; i < n; i++) {
+			Map<String, Double> row = couplingData.get(names[i]);
+			if (row == null)
+				continue;
+
+			for (Map.Entry<String, Double> entry : row.entrySet()) {
+				Integer j = ids.get(entry.getKey());
+				if (j != null && j != i)
+					sums[index(i, j)] += entry.getValue();
+			}
+		}
+	}
+
+	/* METHODS */
+	private int index(int i, int j) {
+		if (i > j) {
+			int tmp = i;
+			i = j;
+			j = tmp;
+		}
+		return (int) ((long) i * n - (long) i * (i + 1) / 2 + (j - i - 1));
+	}
+
+	private double similarity(int i, int j) {
+		return sums[index(i, j)] / ((double) sizes[i] * sizes[j]);
+	}
+
+	public Linkage cluster() {
+		int nbMerges = Math.max(0, n - 1);
+		int[] mergeA = new int[nbMerges];
+		int[] mergeB = new int[nbMerges];
+		double[] mergeSimilarity = new double[nbMerges];
+		double[] mergeCross = new double[nbMerges];
+		int[] chain = new int[n];
+		int chainSize = 0;
+		int merges = 0;
+		ClusterMergeEvent event = new ClusterMergeEvent();
+		event.begin();
+
+		while (merges < nbMerges) {
+			if (chainSize == 0)
+				chain[chainSize++] = firstActive();
+
+			int current = chain[chainSize - 1];
+			int previous = chainSize > 1 ? chain[chainSize - 2] : -1;
+			int nearest = nearestNeighbour(current, previous);
+
+			if (nearest != previous) {
+				chain[chainSize++] = nearest;
+				continue;
+			}
+
+			// Plus proches voisins réciproques : on les fusionne
+			chainSize -= 2;
+			mergeA[merges] = Math.min(current, previous);
+			mergeB[merges] = Math.max(current, previous);
+			mergeSimilarity[merges] = similarity(current, previous);
+			mergeCross[merges] = sums[index(current, previous)];
+			int sizeA = sizes[mergeA[merges]];
+			int sizeB = sizes[mergeB[merges]];
+			merge(mergeA[merges], mergeB[merges]);
+			event.end();
+
+			if (event.shouldCommit()) {
+				event.left = names[mergeA[merges]];
+				event.right = names[mergeB[merges]];
+				event.leftSize = sizeA;
+				event.rightSize = sizeB;
+				event.similarity = mergeSimilarity[merges];
+				event.chainLength = chainSize + 2;
+				event.commit();
+			}
+			merges++;
+			event = new ClusterMergeEvent();
+			event.begin();
+		}
+
+		return toLinkage(mergeA, mergeB, mergeSimilarity, mergeCross);
+	}
+
+	private int firstActive() {
+		for (int i = 0; i < n; i++)
+			if (active[i])
+				return i;
+
+		return -1;
+	}
+
+	// En cas d'égalité, le prédécesseur dans la chaîne est préféré (ce qui garantit la
+	// terminaison), puis le plus petit indice
+	private int nearestNeighbour(int current, int previous) {
+		int nearest = previous;
+		double best = previous >= 0 ? similarity(current, previous) : Double.NEGATIVE_INFINITY;
+
+		for (int k = 0; k < n; k++) {
+			if (!active[k] || k == current || k == previous)
+				continue;
+
+			double value = similarity(current, k);
+			if (value > best) {
+				best = value;
+				nearest = k;
+			}
+		}
+
+		return nearest;
+	}
+
+	// Le cluster fusionné occupe l'emplacement de a ; celui de b est désactivé.
+	// Mise à jour de Lance–Williams du lien moyen, exprimée sur les sommes.
+	private void merge(int a, int b) {
+		for (int k = 0; k < n; k++)
+			if (active[k] && k != a && k != b)
+				sums[index(a, k)] += sums[index(b, k)];
+
+		sizes[a] += sizes[b];
+		active[b] = false;
+	}
+
+	// Les fusions sont triées par similarité décroissante puis renumérotées : on obtient
+	// l'ordre qu'aurait produit l'algorithme glouton, fusion la plus forte d'abord
+	private Linkage toLinkage(int[] mergeA, int[] mergeB, double[] mergeSimilarity, double[] mergeCross) {
+		int nbMerges = mergeA.length;
+		Integer[] order = new Integer[nbMerges];
+		for (int k = 0; k < nbMerges; k++)
+			order[k] = k;
+		Arrays.sort(order, Comparator.comparingDouble((Integer k) -> -mergeSimilarity[k]));
+
+		int[] parent = new int[n];
+		int[] clusterOf = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+			clusterOf[i] = i;
+		}
+
+		int[] left = new int[nbMerges];
+		int[] right = new int[nbMerges];
+		double[] similarity = new double[nbMerges];
+		double[] cross = new double[nbMerges];
+		int[] size = new int[nbMerges];
+
+		int k = 0;
+		for (; k < nbMerges && mergeSimilarity[order[k]] > 0; k++) {
+			int m = order[k];
+			int rootA = find(parent, mergeA[m]);
+			int rootB = find(parent, mergeB[m]);
+			int clusterA = clusterOf[rootA];
+			int clusterB = clusterOf[rootB];
+
+			left[k] = Math.min(clusterA, clusterB);
+			right[k] = Math.max(clusterA, clusterB);
+			similarity[k] = mergeSimilarity[m];
+			cross[k] = mergeCross[m];
+			size[k] = sizeOf(left[k], size) + sizeOf(right[k], size);
+
+			parent[rootB] = rootA;
+			clusterOf[rootA] = n + k;
+		}
+
+		// Il ne reste que des clusters sans aucun couplage entre eux : comme l'algorithme
+		// glouton, on fusionne toujours les deux plus anciens
+		Deque<Integer> remaining = new ArrayDeque<>();
+		for (int i = 0; i < n; i++)
+			if (find(parent, i) == i)
+				remaining.add(clusterOf[i]);
+		List<Integer> sorted = new ArrayList<>(remaining);
+		Collections.sort(sorted);
+		remaining = new ArrayDeque<>(sorted);
+
+		for (; k < nbMerges; k++) {
+			left[k] = remaining.poll();
+			right[k] = remaining.poll();
+			size[k] = sizeOf(left[k], size) + sizeOf(right[k], size);
+			remaining.add(n + k);
+		}
+
+		return new Linkage(names, left, right, similarity, cross, size);
+	}
+
+	private int sizeOf(int cluster, int[] mergeSizes) {
+		return cluster < n ? 1 : mergeSizes[cluster - n];
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+}
@@ -0,0 +1,86 @@
+package graphs;
+
+import utility.LongIntHashMap;
+
+// Graphe pondéré figé au format CSR (compressed sparse row) : les arcs sortants du
+// nœud n occupent les indices [offsets[n], offsets[n + 1]) de targets et weights,
+// triés par identifiant de destination.
+public class CompactGraph {
+	/* ATTRIBUTES */
+	private int[] offsets;
+	private int[] targets;
+	private int[] weights;
+
+	/* CONSTRUCTOR */
+	public CompactGraph(int[] offsets, int[] targets, int[] weights) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/* METHODS */
+	// Les clés de edges sont LongIntHashMap.key(source, destination)
+	public static CompactGraph build(int nodeCount, LongIntHashMap edges) {
+		long[] keys = edges.sortedKeys();
+		int[] offsets = new int[nodeCount + 1];
+		int[] targets = new int[keys.length];
+		int[] weights = new int[keys.length];
+
+		for (int i = 0; i < keys.length; i++) {
+			offsets[LongIntHashMap.high(keys[i]) + 1]++;
+			targets[i] = LongIntHashMap.low(keys[i]);
+			weights[i] = edges.get(keys[i], 0);
+		}
+
+		for (int node = 0; node < nodeCount; node++)
+			offsets[node + 1] += offsets[node];
+
+		return new CompactGraph(offsets, targets, weights);
+	}
+
+	public int getNbNodes() {
+		return offsets.length - 1;
+	}
+
+	public int getNbEdges() {
+		return targets.length;
+	}
+
+	public int firstEdge(int node) {
+		return offsets[node];
+	}
+
+	public int lastEdge(int node) {
+		return offsets[node + 1];
+	}
+
+	public int outDegree(int node) {
+		return offsets[node + 1] - offsets[node];
+	}
+
+	public int target(int edge) {
+		return targets[edge];
+	}
+
+	public int weight(int edge) {
+		return weights[edge];
+	}
+
+	public long outWeight(int node) {
+		long total = 0;
+
+		for (int edge = offsets[node]; edge < offsets[node + 1]; edge++)
+			total += weights[edge];
+
+		return total;
+	}
+
+	public long totalWeight() {
+		long total = 0;
+
+		for (int weight : weights)
+			total += weight;
+
+		return total;
+	}
+}
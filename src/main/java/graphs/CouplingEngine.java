@@ -0,0 +1,183 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import jfr.CouplingRowEvent;
+
+// Calcul du couplage en une passe sur les arcs : couplage(A, B) = invocations de A vers B
+// divisées par le total des invocations sortantes de A. Le total de chaque classe est
+// calculé une seule fois et seuls les couplages non nuls sont produits.
+//
+// Les lignes sont indépendantes : avec parallelism > 1, elles sont réparties entre les
+// tâches d'un ForkJoinPool par tranches de ROWS_PER_TASK. Chaque tâche écrit ses lignes
+// dans ses propres cases, puis les lignes sont rangées dans le résultat dans l'ordre des
+// classes demandées : le résultat, y compris son ordre d'itération, est celui du calcul
+// séquentiel.
+public class CouplingEngine {
+	/* ATTRIBUTES */
+	private static final int ROWS_PER_TASK = 64;
+
+	private SymbolTable classes;
+	private CompactGraph invocations;
+	private long[] outgoingTotals;
+
+	/* CONSTRUCTOR */
+	public CouplingEngine(SymbolTable classes, CompactGraph invocations) {
+		this.classes = classes;
+		this.invocations = invocations;
+		this.outgoingTotals = new long[invocations.getNbNodes()];
+
+		for (int source = 0; source < outgoingTotals.length; source++)
+			outgoingTotals[source] = invocations.outWeight(source);
+	}
+
+	/* METHODS */
+	public SymbolTable getClasses() {
+		return classes;
+	}
+
+	public CompactGraph getInvocations() {
+		return invocations;
+	}
+
+	public long getOutgoingTotal(int source) {
+		return source < outgoingTotals.length ? outgoingTotals[source] : 0;
+	}
+
+	public double getCoupling(String classA, String classB) {
+		int source = classes.getId(classA);
+		int destination = classes.getId(classB);
+
+		if (source < 0 || destination < 0 || source >= outgoingTotals.length || outgoingTotals[source] == 0)
+			return 0.0;
+
+		for (int edge = invocations.firstEdge(source); edge < invocations.lastEdge(source); edge++)
+			if (invocations.target(edge) == destination)
+				return (double) invocations.weight(edge) / outgoingTotals[source];
+
+		return 0.0;
+	}
+
+	// Ligne de couplage d'une classe, restreinte aux destinations acceptées par allowed
+	// (indexé par identifiant de symbole, null pour tout accepter)
+	public Map<String, Double> computeRow(int source, boolean[] allowed) {
+		Map<String, Double> row = new HashMap<>();
+
+		if (source < 0 || source >= outgoingTotals.length || outgoingTotals[source] == 0)
+			return row;
+
+		double total = outgoingTotals[source];
+		for (int edge = invocations.firstEdge(source); edge < invocations.lastEdge(source); edge++) {
+			int destination = invocations.target(edge);
+
+			if (destination != source && (allowed == null || allowed[destination]))
+				row.put(classes.getName(destination), invocations.weight(edge) / total);
+		}
+
+		return row;
+	}
+
+	// Toutes les classes de allClasses figurent comme clés, avec leurs seuls couplages non nuls
+	public Map<String, Map<String, Double>> computeAll(Collection<String> allClasses) {
+		return computeRows(allClasses, allClasses);
+	}
+
+	public Map<String, Map<String, Double>> computeAll(Collection<String> allClasses, int parallelism) {
+		return computeRows(allClasses, allClasses, parallelism);
+	}
+
+	// Lignes des seules classes de rows, les destinations étant restreintes à allClasses
+	public Map<String, Map<String, Double>> computeRows(Collection<String> rows, Collection<String> allClasses) {
+		return computeRows(rows, allClasses, 1);
+	}
+
+	public Map<String, Map<String, Double>> computeRows(Collection<String> rows, Collection<String> allClasses,
+			int parallelism) {
+		boolean[] allowed = new boolean[classes.size()];
+
+		for (String className : allClasses) {
+			int id = classes.getId(className);
+			if (id >= 0)
+				allowed[id] = true;
+		}
+
+		String[] names = rows.toArray(new String[0]);
+		List<Map<String, Double>> computed = new ArrayList<>(Collections.nCopies(names.length, null));
+
+		if (parallelism <= 1 || names.length <= ROWS_PER_TASK) {
+			computeRange(names, 0, names.length, allowed, computed);
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				pool.invoke(new RowsTask(names, 0, names.length, allowed, computed));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		// Fusion dans l'ordre des classes demandées, quel que soit l'ordre de fin des tâches
+		Map<String, Map<String, Double>> couplings = new HashMap<>();
+		for (int i = 0; i < names.length; i++)
+			couplings.put(names[i], computed.get(i));
+
+		return couplings;
+	}
+
+	private void computeRange(String[] names, int from, int to, boolean[] allowed,
+			List<Map<String, Double>> computed) {
+		for (int i = from; i < to; i++) {
+			CouplingRowEvent event = new CouplingRowEvent();
+			event.begin();
+			int id = classes.getId(names[i]);
+			Map<String, Double> row = computeRow(id, allowed);
+			computed.set(i, row);
+			event.end();
+
+			if (event.shouldCommit()) {
+				event.className = names[i];
+				event.outgoingInvocations = id >= 0 ? getOutgoingTotal(id) : 0;
+				event.coupledClasses = row.size();
+				event.commit();
+			}
+		}
+	}
+
+	// Tranche [from, to) des lignes, coupée en deux jusqu'à ROWS_PER_TASK lignes ; chaque
+	// tâche n'écrit que dans ses propres cases de computed (set() ne modifie pas sa structure)
+	private class RowsTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private String[] names;
+		private int from;
+		private int to;
+		private boolean[] allowed;
+		private List<Map<String, Double>> computed;
+
+		RowsTask(String[] names, int from, int to, boolean[] allowed, List<Map<String, Double>> computed) {
+			this.names = names;
+			this.from = from;
+			this.to = to;
+			this.allowed = allowed;
+			this.computed = computed;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= ROWS_PER_TASK) {
+				computeRange(names, from, to, allowed, computed);
+				return;
+			}
+
+			int middle = (from + to) >>> 1;
+			invokeAll(new RowsTask(names, from, middle, allowed, computed),
+					new RowsTask(names, middle, to, allowed, computed));
+		}
+	}
+}
@@ -5,54 +5,269 @@ import org.graphstream.graph.Graph;
 import org.graphstream.graph.Edge;
 import org.graphstream.graph.Node;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.TreeSet;
 
+// Affichage du graphe de couplage : une seule arête pondérée par couple de classes, de poids
+// couplage(A, B) + couplage(B, A) comme pour le clustering. Les arêtes sous minCoupling sont
+// écartées, puis seules les maxEdgesPerNode plus fortes de chaque nœud sont conservées (une
+// arête reste si elle est parmi les plus fortes de l'une de ses extrémités).
+//
+// Au-delà de maxNodes classes, les classes sont regroupées en super-nœuds par paquetage, en
+// remontant l'arborescence des paquetages jusqu'à tenir dans maxNodes ; les arêtes entre
+// super-nœuds cumulent celles de leurs classes. Les libellés ne sont affichés que sur les
+// petits graphes, pour que le rendu reste fluide sur de grands projets.
 public class CouplingGraphVisualizer {
 
+    public static final double DEFAULT_MIN_COUPLING = 0.01;
+    public static final int DEFAULT_MAX_EDGES_PER_NODE = 5;
+    public static final int DEFAULT_MAX_NODES = 2000;
+    private static final int LABEL_LIMIT = 300;
+
     private Map<String, Map<String, Double>> couplingGraph;
+    private double minCoupling = DEFAULT_MIN_COUPLING;
+    private int maxEdgesPerNode = DEFAULT_MAX_EDGES_PER_NODE;
+    private int maxNodes = DEFAULT_MAX_NODES;
 
     public CouplingGraphVisualizer(Map<String, Map<String, Double>> couplingGraph) {
         this.couplingGraph = couplingGraph;
     }
 
+    public void setMinCoupling(double minCoupling) {
+        this.minCoupling = minCoupling;
+    }
+
+    // 0 pour conserver toutes les arêtes au-dessus du seuil
+    public void setMaxEdgesPerNode(int maxEdgesPerNode) {
+        this.maxEdgesPerNode = maxEdgesPerNode;
+    }
+
+    public void setMaxNodes(int maxNodes) {
+        this.maxNodes = Math.max(1, maxNodes);
+    }
+
     public void displayGraph() {
+        buildGraph().display();
+    }
+
+    public Graph buildGraph() {
         Graph gsGraph = new SingleGraph("Coupling Graph");
+        CouplingView view = createView();
+        boolean labels = view.names.length <= LABEL_LIMIT;
 
-        // Ajouter tous les nœuds pour chaque clé dans le graphe
-        for (String className : couplingGraph.keySet()) {
-            Node node = gsGraph.addNode(className);
-            node.setAttribute("ui.label", className);
-        }
-
-        // Ajouter les arêtes pondérées
-        for (String classSource : couplingGraph.keySet()) {
-            for (String classDestination : couplingGraph.get(classSource).keySet()) {
-                double weight = couplingGraph.get(classSource).get(classDestination);
-
-                // Nombre d'arcs basé sur le poids (arrondi)
-                int edgeCount = (int) Math.round(weight * 10);
-                for (int i = 0; i < edgeCount; i++) {
-                    String edgeId = classSource + "-" + classDestination + "-" + i;
-                    try {
-                        Edge edge = gsGraph.addEdge(edgeId, classSource, classDestination, false);
-                        edge.setAttribute("ui.label", String.format("%.2f", weight));
-                    } catch (org.graphstream.graph.EdgeRejectedException e) {
-                        System.out.println("Arête rejetée: " + edgeId);
-                    }
-                }
+        for (int i = 0; i < view.names.length; i++) {
+            Node node = gsGraph.addNode(view.names[i]);
+            if (view.sizes[i] > 1) {
+                node.setAttribute("ui.class", "group");
+                node.setAttribute("ui.size", 10 + 4 * Math.log(view.sizes[i]));
             }
+            if (labels)
+                node.setAttribute("ui.label", view.sizes[i] > 1
+                        ? view.names[i] + " (" + view.sizes[i] + ")" : view.names[i]);
+        }
+
+        for (int edge = 0; edge < view.weights.length; edge++) {
+            String source = view.names[view.sources[edge]];
+            String destination = view.names[view.destinations[edge]];
+            Edge gsEdge = gsGraph.addEdge(source + "-" + destination, source, destination, false);
+
+            gsEdge.setAttribute("ui.size", 1 + 4 * Math.min(1.0, view.weights[edge]));
+            if (labels)
+                gsEdge.setAttribute("ui.label", String.format("%.2f", view.weights[edge]));
         }
 
-        // Style du graphe
-        String styleSheet = "node { text-size: 16; fill-color: lightgray; } " +
-                "edge { text-size: 14; }";
+        // Style du graphe : sans anticrénelage ni libellés au-delà de LABEL_LIMIT nœuds
+        String styleSheet = "node { text-size: 16; fill-color: lightgray; size-mode: dyn-size; } " +
+                "node.group { fill-color: steelblue; } " +
+                "edge { text-size: 14; size-mode: dyn-size; fill-color: #777; }";
 
         gsGraph.setAttribute("ui.stylesheet", styleSheet);
+        if (labels) {
+            gsGraph.setAttribute("ui.quality");
+            gsGraph.setAttribute("ui.antialias");
+        }
+
+        return gsGraph;
+    }
+
+    // Nœuds et arêtes retenus pour l'affichage, indépendamment de GraphStream
+    CouplingView createView() {
+        String[] classes = new TreeSet<>(couplingGraph.keySet()).toArray(new String[0]);
+        int depth = Integer.MAX_VALUE;
+        Map<String, Integer> groups = groupClasses(classes, depth);
+
+        // Regroupement par paquetages de moins en moins profonds
+        if (classes.length > maxNodes) {
+            depth = maxPackageDepth(classes);
+            groups = groupClasses(classes, depth);
+            while (groups.size() > maxNodes && depth > 1)
+                groups = groupClasses(classes, --depth);
+        }
+
+        String[] names = new String[groups.size()];
+        int[] sizes = new int[groups.size()];
+        int[] groupOf = new int[classes.length];
+        Map<String, Integer> ids = new HashMap<>();
+
+        for (int i = 0; i < classes.length; i++) {
+            String group = getGroup(classes[i], depth);
+            groupOf[i] = groups.get(group);
+            names[groupOf[i]] = group;
+            sizes[groupOf[i]]++;
+            ids.put(classes[i], i);
+        }
+
+        // Une arête par couple de nœuds, en cumulant les deux sens
+        Map<Long, Double> pairs = new HashMap<>();
+        for (int i = 0; i < classes.length; i++) {
+            for (Map.Entry<String, Double> cell : couplingGraph.get(classes[i]).entrySet()) {
+                Integer j = ids.get(cell.getKey());
+                if (j == null || groupOf[i] == groupOf[j] || cell.getValue() <= 0)
+                    continue;
+
+                int a = Math.min(groupOf[i], groupOf[j]);
+                int b = Math.max(groupOf[i], groupOf[j]);
+                pairs.merge(((long) a << 32) | b, cell.getValue(), Double::sum);
+            }
+        }
+
+        // Seuil, puis ordre stable des arêtes (par couple de nœuds)
+        List<Long> keys = new ArrayList<>();
+        for (Map.Entry<Long, Double> pair : pairs.entrySet())
+            if (pair.getValue() >= minCoupling)
+                keys.add(pair.getKey());
+        Collections.sort(keys);
+
+        int nbEdges = keys.size();
+        int[] sources = new int[nbEdges];
+        int[] destinations = new int[nbEdges];
+        double[] values = new double[nbEdges];
+
+        for (int edge = 0; edge < nbEdges; edge++) {
+            long key = keys.get(edge);
+            sources[edge] = (int) (key >>> 32);
+            destinations[edge] = (int) key;
+            values[edge] = pairs.get(key);
+        }
+
+        return selectTopEdges(names, sizes, sources, destinations, values);
+    }
 
-        // Afficher le graphe
-        gsGraph.display();
+    private CouplingView selectTopEdges(String[] names, int[] sizes, int[] sources, int[] destinations,
+            double[] values) {
+        int nbEdges = values.length;
+        int[] degree = new int[names.length];
+
+        for (int edge = 0; edge < nbEdges; edge++) {
+            degree[sources[edge]]++;
+            degree[destinations[edge]]++;
+        }
+
+        boolean[] selected = new boolean[nbEdges];
+        if (maxEdgesPerNode <= 0) {
+            Arrays.fill(selected, true);
+        } else {
+            // Arêtes incidentes de chaque nœud, triées par poids décroissant
+            int[][] incident = new int[names.length][];
+            for (int node = 0; node < names.length; node++)
+                incident[node] = new int[degree[node]];
+            int[] filled = new int[names.length];
+            for (int edge = 0; edge < nbEdges; edge++) {
+                incident[sources[edge]][filled[sources[edge]]++] = edge;
+                incident[destinations[edge]][filled[destinations[edge]]++] = edge;
+            }
+
+            for (int[] edges : incident) {
+                Integer[] order = new Integer[edges.length];
+                for (int k = 0; k < edges.length; k++)
+                    order[k] = edges[k];
+                Arrays.sort(order, (e1, e2) -> values[e1] != values[e2]
+                        ? Double.compare(values[e2], values[e1]) : Integer.compare(e1, e2));
+
+                for (int k = 0; k < Math.min(maxEdgesPerNode, order.length); k++)
+                    selected[order[k]] = true;
+            }
+        }
+
+        int count = 0;
+        for (boolean isSelected : selected)
+            if (isSelected)
+                count++;
+
+        CouplingView view = new CouplingView(names, sizes, count);
+        int next = 0;
+        for (int edge = 0; edge < nbEdges; edge++) {
+            if (selected[edge]) {
+                view.sources[next] = sources[edge];
+                view.destinations[next] = destinations[edge];
+                view.weights[next] = values[edge];
+                next++;
+            }
+        }
+
+        return view;
+    }
+
+    // Groupe -> identifiant, dans l'ordre des classes
+    private static Map<String, Integer> groupClasses(String[] classes, int depth) {
+        Map<String, Integer> groups = new HashMap<>();
+
+        for (String className : classes)
+            groups.putIfAbsent(getGroup(className, depth), groups.size());
+
+        return groups;
+    }
+
+    private static int maxPackageDepth(String[] classes) {
+        int depth = 0;
+
+        for (String className : classes) {
+            int classDepth = 0;
+            for (int i = 0; i < className.length(); i++)
+                if (className.charAt(i) == '.')
+                    classDepth++;
+            depth = Math.max(depth, classDepth);
+        }
+
+        return depth;
+    }
+
+    // Paquetage de la classe limité à depth niveaux, suivi de ".*" pour marquer un super-nœud ;
+    // la classe elle-même sans regroupement (depth = Integer.MAX_VALUE) ou sans paquetage
+    private static String getGroup(String className, int depth) {
+        int packageEnd = className.lastIndexOf('.');
+        if (depth == Integer.MAX_VALUE || packageEnd == -1)
+            return className;
+
+        int index = -1;
+        for (int level = 0; level < depth; level++) {
+            int next = className.indexOf('.', index + 1);
+            if (next == -1 || next > packageEnd)
+                break;
+            index = next;
+        }
+
+        return className.substring(0, index) + ".*";
+    }
+
+    static class CouplingView {
+        final String[] names;
+        final int[] sizes;
+        final int[] sources;
+        final int[] destinations;
+        final double[] weights;
+
+        CouplingView(String[] names, int[] sizes, int nbEdges) {
+            this.names = names;
+            this.sizes = sizes;
+            this.sources = new int[nbEdges];
+            this.destinations = new int[nbEdges];
+            this.weights = new double[nbEdges];
+        }
     }
 }
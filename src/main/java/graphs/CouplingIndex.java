@@ -0,0 +1,123 @@
+package graphs;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Index de requêtes sur les résultats de couplage, construit une fois après l'analyse :
+//   - dépendances de chaque classe, triées par couplage(X, Y) décroissant ;
+//   - couples les plus couplés, de poids couplage(A, B) + couplage(B, A) comme pour le
+//     clustering, retenus par un tas borné à maxPairs éléments pendant la construction.
+// Les requêtes ne font que lire un préfixe de ces listes triées.
+public class CouplingIndex {
+	/* ATTRIBUTES */
+	public static final int DEFAULT_MAX_PAIRS = 1000;
+
+	// Ordre des résultats : poids décroissant, puis noms croissants pour départager
+	private static final Comparator<Pair> ORDER = Comparator.comparingDouble(Pair::getWeight).reversed()
+			.thenComparing(Pair::getSource).thenComparing(Pair::getDestination);
+
+	private Map<String, Pair[]> dependencies = new HashMap<>();
+	private Pair[] topPairs;
+
+	/* CONSTRUCTOR */
+	public CouplingIndex(Map<String, Map<String, Double>> couplings) {
+		this(couplings, DEFAULT_MAX_PAIRS);
+	}
+
+	public CouplingIndex(Map<String, Map<String, Double>> couplings, int maxPairs) {
+		// Tas min : sa racine est le plus faible des couples retenus
+		PriorityQueue<Pair> heap = new PriorityQueue<>(Math.max(1, maxPairs) + 1, ORDER.reversed());
+
+		for (Map.Entry<String, Map<String, Double>> row : couplings.entrySet()) {
+			String source = row.getKey();
+			Pair[] sorted = new Pair[row.getValue().size()];
+			int i = 0;
+
+			for (Map.Entry<String, Double> cell : row.getValue().entrySet()) {
+				String destination = cell.getKey();
+				sorted[i++] = new Pair(source, destination, cell.getValue());
+
+				// Chaque couple n'est compté qu'une fois : depuis la plus petite des deux
+				// classes, ou depuis la seule qui appelle l'autre
+				Map<String, Double> reverseRow = couplings.get(destination);
+				Double reverse = reverseRow != null ? reverseRow.get(source) : null;
+				if (source.compareTo(destination) < 0 || reverse == null) {
+					boolean ordered = source.compareTo(destination) < 0;
+					offer(heap, maxPairs, new Pair(ordered ? source : destination, ordered ? destination : source,
+							cell.getValue() + (reverse != null ? reverse : 0.0)));
+				}
+			}
+
+			Arrays.sort(sorted, ORDER);
+			dependencies.put(source, sorted);
+		}
+
+		topPairs = heap.toArray(new Pair[0]);
+		Arrays.sort(topPairs, ORDER);
+	}
+
+	/* METHODS */
+	private static void offer(PriorityQueue<Pair> heap, int maxPairs, Pair pair) {
+		if (maxPairs <= 0)
+			return;
+
+		if (heap.size() < maxPairs) {
+			heap.add(pair);
+		} else if (ORDER.compare(pair, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(pair);
+		}
+	}
+
+	// Les k dépendances les plus fortes de la classe (vide si elle est inconnue)
+	public List<Pair> getTopDependencies(String className, int k) {
+		Pair[] sorted = dependencies.get(className);
+		if (sorted == null)
+			return Collections.emptyList();
+
+		return Collections.unmodifiableList(Arrays.asList(sorted).subList(0, Math.max(0, Math.min(k, sorted.length))));
+	}
+
+	// Les k couples les plus couplés ; au plus maxPairs couples sont conservés
+	public List<Pair> getTopPairs(int k) {
+		return Collections.unmodifiableList(Arrays.asList(topPairs).subList(0, Math.max(0, Math.min(k, topPairs.length))));
+	}
+
+	public boolean contains(String className) {
+		return dependencies.containsKey(className);
+	}
+
+	public static class Pair {
+		private String source;
+		private String destination;
+		private double weight;
+
+		public Pair(String source, String destination, double weight) {
+			this.source = source;
+			this.destination = destination;
+			this.weight = weight;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		public String getDestination() {
+			return destination;
+		}
+
+		public double getWeight() {
+			return weight;
+		}
+
+		@Override
+		public String toString() {
+			return source + " - " + destination + " : " + String.format("%.4f", weight);
+		}
+	}
+}
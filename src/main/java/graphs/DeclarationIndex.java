@@ -0,0 +1,230 @@
+package graphs;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Index des déclarations du projet, utilisé en mode rapide à la place des bindings JDT :
+// types déclarés, super-classes et types des champs, plus les imports et le paquetage de
+// chaque fichier. Les références de type sont résolues comme le ferait le compilateur,
+// dans l'ordre : types du fichier, imports simples, paquetage courant, imports à la
+// demande, java.lang. Les types hors projet ne sont reconnus que s'ils viennent du JDK.
+public class DeclarationIndex {
+	/* ATTRIBUTES */
+	private static final int MAX_HIERARCHY_DEPTH = 64;
+	private static final Class<?> NOT_FOUND = Void.TYPE;
+	
+	private Set<String> types = new HashSet<>();
+	private Map<String, FileFacts> declaringFiles = new HashMap<>();
+	private Map<String, String> superTypes = new HashMap<>();
+	private Map<String, String> fieldTypes = new HashMap<>();
+	private Map<String, Class<?>> platformTypes = new HashMap<>();
+	
+	/* METHODS */
+	public static DeclarationIndex build(Collection<FileFacts> allFacts) {
+		DeclarationIndex index = new DeclarationIndex();
+		
+		for (FileFacts facts : allFacts)
+			index.addDeclarations(facts);
+		
+		return index;
+	}
+	
+	public void addDeclarations(FileFacts facts) {
+		for (String type : facts.getDeclaredTypes()) {
+			types.add(type);
+			declaringFiles.put(type, facts);
+		}
+		superTypes.putAll(facts.getSuperTypes());
+		fieldTypes.putAll(facts.getFieldTypes());
+	}
+	
+	public boolean containsType(String typeName) {
+		return types.contains(typeName);
+	}
+	
+	// Copie des faits où chaque receveur en attente est remplacé par son type qualifié
+	public FileFacts resolve(FileFacts facts) {
+		if (facts.getNbPendingInvocations() == 0)
+			return facts;
+		
+		FileFacts resolved = new FileFacts(facts.getSourcePath());
+		String[] callees = new String[facts.getNbInvocations()];
+		int nbResolved = facts.getResolvedReceivers();
+		int nbUnresolved = facts.getUnresolvedReceivers();
+		
+		for (int i = 0; i < callees.length; i++)
+			callees[i] = facts.getCallee(i);
+		
+		for (int i = 0; i < facts.getNbPendingInvocations(); i++) {
+			int invocation = facts.getPendingInvocation(i);
+			String type = resolveReceiver(facts.getPendingReceiver(i), facts);
+			
+			if (type != null) {
+				String callee = callees[invocation];
+				callees[invocation] = type + callee.substring(callee.lastIndexOf("::"));
+				nbResolved++;
+			} else {
+				nbUnresolved++;
+			}
+		}
+		
+		for (String method : facts.getMethods())
+			resolved.addMethod(method);
+		for (int i = 0; i < callees.length; i++)
+			resolved.addInvocation(facts.getCaller(i), callees[i]);
+		resolved.setReceiverCounts(nbResolved, nbUnresolved);
+		
+		return resolved;
+	}
+	
+	// Référence de receveur : nom pointé (type, éventuellement suivi de champs), puis
+	// accès de champ séparés par '#'
+	public String resolveReceiver(String receiver, FileFacts context) {
+		String[] parts = receiver.split("#");
+		String type = resolveDottedName(parts[0], context);
+		
+		for (int i = 1; type != null && i < parts.length; i++)
+			type = resolveField(type, parts[i]);
+		
+		return type;
+	}
+	
+	// Le plus long préfixe qui désigne un type, les composantes suivantes étant des champs
+	private String resolveDottedName(String name, FileFacts context) {
+		String type = resolveType(name, context);
+		
+		for (int dot = name.lastIndexOf('.'); type == null && dot > 0; dot = name.lastIndexOf('.', dot - 1)) {
+			type = resolveType(name.substring(0, dot), context);
+			
+			for (String field : name.substring(dot + 1).split("\\.")) {
+				if (type == null)
+					break;
+				type = resolveField(type, field);
+			}
+		}
+		
+		return type;
+	}
+	
+	// Champ déclaré dans le type ou hérité d'une de ses super-classes. Hors du projet,
+	// seuls les champs publics des types du JDK sont connus.
+	public String resolveField(String typeName, String fieldName) {
+		String type = typeName;
+		
+		for (int depth = 0; type != null && depth < MAX_HIERARCHY_DEPTH; depth++) {
+			String fieldType = fieldTypes.get(type + "#" + fieldName);
+			FileFacts declaringFile = declaringFiles.get(type);
+			
+			if (declaringFile == null)
+				return getPlatformFieldType(type, fieldName);
+			if (fieldType != null)
+				return resolveType(fieldType, declaringFile);
+			
+			type = resolveType(superTypes.get(type), declaringFile);
+		}
+		
+		return null;
+	}
+	
+	public String resolveType(String typeName, FileFacts context) {
+		if (typeName == null)
+			return null;
+		
+		int dot = typeName.indexOf('.');
+		if (dot < 0)
+			return resolveSimpleType(typeName, context);
+		
+		if (types.contains(typeName) || isPlatformType(typeName))
+			return typeName;
+		
+		// Type imbriqué (Externe.Interne) : la première composante est résolue comme un nom simple
+		String outer = resolveSimpleType(typeName.substring(0, dot), context);
+		if (outer == null)
+			return null;
+		
+		String nested = typeName.substring(dot);
+		if (types.contains(outer))
+			return types.contains(outer + nested) ? outer + nested : null;
+		
+		return isPlatformType(outer + nested) ? outer + nested : null;
+	}
+
+	private String resolveSimpleType(String simpleName, FileFacts context) {
+		String local = qualify(context.getPackageName(), simpleName);
+		
+		if (context.getDeclaredTypes().contains(local))
+			return local;
+		
+		// Type imbriqué déclaré dans le même fichier
+		for (String type : context.getDeclaredTypes())
+			if (type.endsWith("." + simpleName))
+				return type;
+		
+		for (String importName : context.getImports())
+			if (!importName.endsWith(".*") && importName.endsWith("." + simpleName))
+				return importName;
+		
+		if (types.contains(local))
+			return local;
+		
+		for (String importName : context.getImports()) {
+			if (!importName.endsWith(".*"))
+				continue;
+			
+			String candidate = importName.substring(0, importName.length() - 1) + simpleName;
+			if (types.contains(candidate) || isPlatformType(candidate))
+				return candidate;
+		}
+		
+		if (isPlatformType("java.lang." + simpleName))
+			return "java.lang." + simpleName;
+		
+		return null;
+	}
+	
+	private static String qualify(String packageName, String simpleName) {
+		return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+	}
+	
+	private boolean isPlatformType(String typeName) {
+		return getPlatformClass(typeName) != null;
+	}
+	
+	private String getPlatformFieldType(String typeName, String fieldName) {
+		Class<?> type = getPlatformClass(typeName);
+		
+		try {
+			Class<?> fieldType = type == null ? null : type.getField(fieldName).getType();
+			return fieldType == null || fieldType.isPrimitive() || fieldType.isArray() 
+					? null : fieldType.getCanonicalName();
+		} catch (NoSuchFieldException | SecurityException e) {
+			return null;
+		}
+	}
+	
+	// Classe du JDK désignée par un nom qualifié, les types imbriqués étant séparés par
+	// des points (java.util.Map.Entry)
+	private Class<?> getPlatformClass(String typeName) {
+		Class<?> type = platformTypes.computeIfAbsent(typeName, name -> {
+			String binaryName = name;
+			
+			for (int dot = name.length(); dot > 0; dot = binaryName.lastIndexOf('.', dot - 1)) {
+				if (dot < name.length())
+					binaryName = binaryName.substring(0, dot) + "$" + binaryName.substring(dot + 1);
+				
+				try {
+					return Class.forName(binaryName, false, ClassLoader.getPlatformClassLoader());
+				} catch (ClassNotFoundException | LinkageError e) {
+					// Composante suivante : peut-être un type imbriqué
+				}
+			}
+			
+			return NOT_FOUND;
+		});
+		
+		return type == NOT_FOUND ? null : type;
+	}
+}
@@ -0,0 +1,164 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Faits extraits d'une unité de compilation : méthodes déclarées et invocations
+// (appelant, appelé). Ils remplacent l'AST, qui peut être libéré aussitôt après.
+//
+// En mode rapide (sans bindings), les faits portent aussi les déclarations du fichier
+// (paquetage, imports, types, champs, super-classes) et les invocations dont le receveur
+// reste à résoudre par DeclarationIndex une fois tout le projet connu.
+//
+// Avec bindings, les types d'un receveur peuvent dépendre des déclarations d'autres
+// fichiers (type d'un champ, type de retour, membre hérité) : les faits portent alors les
+// types du projet auxquels le fichier fait référence, et leurs super-types (cf. FactCache).
+public class FileFacts {
+	/* ATTRIBUTES */
+	private String sourcePath;
+	private List<String> methods = new ArrayList<>();
+	private List<String> callers = new ArrayList<>();
+	private List<String> callees = new ArrayList<>();
+	// Receveurs d'invocation dont le type a pu (ou non) être résolu
+	private int resolvedReceivers;
+	private int unresolvedReceivers;
+	
+	private String packageName = "";
+	private List<String> imports = new ArrayList<>();
+	private List<String> declaredTypes = new ArrayList<>();
+	// Type déclaré -> super-classe telle qu'écrite dans le source
+	private Map<String, String> superTypes = new LinkedHashMap<>();
+	// "Type#champ" -> type du champ tel qu'écrit dans le source
+	private Map<String, String> fieldTypes = new LinkedHashMap<>();
+	// Invocations en attente : indice, et référence du receveur (un nom de type tel
+	// qu'écrit, ou "Type#champ" pour un champ hérité)
+	private List<Integer> pendingInvocations = new ArrayList<>();
+	private List<String> pendingReceivers = new ArrayList<>();
+	// Types du projet (noms qualifiés) dont dépend la résolution des receveurs
+	private Set<String> dependencies = new LinkedHashSet<>();
+	
+	/* CONSTRUCTOR */
+	public FileFacts(String sourcePath) {
+		this.sourcePath = sourcePath;
+	}
+	
+	/* METHODS */
+	public String getSourcePath() {
+		return sourcePath;
+	}
+	
+	public List<String> getMethods() {
+		return methods;
+	}
+	
+	public void addMethod(String method) {
+		methods.add(method);
+	}
+	
+	public void addInvocation(String caller, String callee) {
+		callers.add(caller);
+		callees.add(callee);
+	}
+	
+	// Invocation dont le receveur sera résolu par l'index ; callee sert de repli
+	public void addPendingInvocation(String caller, String callee, String receiver) {
+		pendingInvocations.add(callers.size());
+		pendingReceivers.add(receiver);
+		addInvocation(caller, callee);
+	}
+	
+	public void countReceiver(boolean resolved) {
+		if (resolved)
+			resolvedReceivers++;
+		else
+			unresolvedReceivers++;
+	}
+	
+	public void setReceiverCounts(int resolved, int unresolved) {
+		this.resolvedReceivers = resolved;
+		this.unresolvedReceivers = unresolved;
+	}
+	
+	public int getResolvedReceivers() {
+		return resolvedReceivers;
+	}
+	
+	public int getUnresolvedReceivers() {
+		return unresolvedReceivers;
+	}
+	
+	public int getNbInvocations() {
+		return callers.size();
+	}
+	
+	public String getCaller(int index) {
+		return callers.get(index);
+	}
+	
+	public String getCallee(int index) {
+		return callees.get(index);
+	}
+	
+	public int getNbPendingInvocations() {
+		return pendingInvocations.size();
+	}
+	
+	public int getPendingInvocation(int index) {
+		return pendingInvocations.get(index);
+	}
+	
+	public String getPendingReceiver(int index) {
+		return pendingReceivers.get(index);
+	}
+	
+	public String getPackageName() {
+		return packageName;
+	}
+	
+	public void setPackageName(String packageName) {
+		this.packageName = packageName;
+	}
+	
+	// Import simple ("a.b.C") ou à la demande ("a.b.*")
+	public List<String> getImports() {
+		return imports;
+	}
+	
+	public void addImport(String importName) {
+		imports.add(importName);
+	}
+	
+	public List<String> getDeclaredTypes() {
+		return declaredTypes;
+	}
+	
+	public void addDeclaredType(String typeName, String superType) {
+		declaredTypes.add(typeName);
+		if (superType != null)
+			superTypes.put(typeName, superType);
+	}
+	
+	public Map<String, String> getSuperTypes() {
+		return superTypes;
+	}
+	
+	public Map<String, String> getFieldTypes() {
+		return fieldTypes;
+	}
+	
+	public void addFieldType(String typeName, String fieldName, String fieldType) {
+		fieldTypes.put(typeName + "#" + fieldName, fieldType);
+	}
+	
+	public Set<String> getDependencies() {
+		return dependencies;
+	}
+	
+	public boolean addDependency(String typeName) {
+		return dependencies.add(typeName);
+	}
+}
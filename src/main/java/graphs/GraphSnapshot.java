@@ -0,0 +1,164 @@
+package graphs;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Instantané binaire d'un graphe d'appel : tables de symboles (méthodes, classes, classes
+// normalisées), graphe des appels entre méthodes, graphe des invocations entre classes et
+// graphe fusionné dont le couplage est tiré, tous en CSR. La relecture passe par une projection mémoire du fichier : les tableaux
+// sont copiés en bloc, sans reconstruire de table de hachage ni réanalyser le projet.
+//
+// Format (gros-boutiste) : MAGIC, FORMAT_VERSION, clé (cf. CallGraph.openCallGraph), table
+// des méthodes suivie de leurs nombres de références et du graphe des méthodes, tables des
+// classes et des classes normalisées, puis les deux graphes de classes.
+//   table  : n, n + 1 positions dans le bloc d'octets, taille du bloc, noms en UTF-8
+//   graphe : nœuds n, arcs m, n + 1 offsets, m destinations, m poids
+public class GraphSnapshot {
+	/* ATTRIBUTES */
+	private static final int MAGIC = 0x48414947;
+	private static final int FORMAT_VERSION = 3;
+
+	/* METHODS */
+	public static void write(CallGraph graph, File file, String key) throws IOException {
+		CouplingEngine engine = graph.getCouplingEngine();
+		file.getParentFile().mkdirs();
+		File tmpFile = File.createTempFile("graph", ".tmp", file.getParentFile());
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			writeBytes(out, key.getBytes(StandardCharsets.UTF_8));
+			writeSymbols(out, graph.getMethodSymbols());
+			writeInts(out, graph.getMethodReferences());
+			writeGraph(out, graph.getMethodGraph().getCallees());
+			writeSymbols(out, graph.getClassSymbols());
+			writeSymbols(out, engine.getClasses());
+			writeGraph(out, graph.getCompactInvocations());
+			writeGraph(out, engine.getInvocations());
+		}
+
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// null si le fichier est absent, d'un autre format, tronqué, ou si sa clé diffère
+	public static CallGraph read(String projectPath, File file, String key) throws IOException {
+		if (!file.isFile())
+			return null;
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				return null;
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+					|| !key.equals(new String(readBytes(buffer), StandardCharsets.UTF_8)))
+				return null;
+
+			SymbolTable methods = readSymbols(buffer);
+			int[] methodReferences = readInts(buffer, methods.size());
+			CompactGraph methodInvocations = readGraph(buffer);
+			SymbolTable classes = readSymbols(buffer);
+			SymbolTable mergedClasses = readSymbols(buffer);
+			CompactGraph invocations = readGraph(buffer);
+			CompactGraph mergedInvocations = readGraph(buffer);
+
+			CallGraph graph = new CallGraph(projectPath);
+			graph.restore(methods, methodReferences, methodInvocations, classes, invocations, mergedClasses,
+					mergedInvocations);
+			return graph;
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+				| NegativeArraySizeException e) {
+			// Instantané tronqué ou corrompu : il sera régénéré
+			return null;
+		}
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] readBytes(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values)
+			out.writeInt(value);
+	}
+
+	private static int[] readInts(ByteBuffer buffer, int length) {
+		int[] values = new int[length];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + 4 * length);
+		return values;
+	}
+
+	private static void writeSymbols(DataOutputStream out, SymbolTable symbols) throws IOException {
+		int size = symbols.size();
+		byte[][] names = new byte[size][];
+		int[] positions = new int[size + 1];
+
+		for (int id = 0; id < size; id++) {
+			names[id] = symbols.getName(id).getBytes(StandardCharsets.UTF_8);
+			positions[id + 1] = positions[id] + names[id].length;
+		}
+
+		out.writeInt(size);
+		writeInts(out, positions);
+		out.writeInt(positions[size]);
+		for (byte[] name : names)
+			out.write(name);
+	}
+
+	private static SymbolTable readSymbols(ByteBuffer buffer) {
+		int size = buffer.getInt();
+		int[] positions = readInts(buffer, size + 1);
+		byte[] bytes = readBytes(buffer);
+		String[] names = new String[size];
+
+		for (int id = 0; id < size; id++)
+			names[id] = new String(bytes, positions[id], positions[id + 1] - positions[id], StandardCharsets.UTF_8);
+
+		return new SymbolTable(names);
+	}
+
+	private static void writeGraph(DataOutputStream out, CompactGraph graph) throws IOException {
+		int nodes = graph.getNbNodes();
+		int edges = graph.getNbEdges();
+		out.writeInt(nodes);
+		out.writeInt(edges);
+
+		for (int node = 0; node <= nodes; node++)
+			out.writeInt(node < nodes ? graph.firstEdge(node) : edges);
+		for (int edge = 0; edge < edges; edge++)
+			out.writeInt(graph.target(edge));
+		for (int edge = 0; edge < edges; edge++)
+			out.writeInt(graph.weight(edge));
+	}
+
+	private static CompactGraph readGraph(ByteBuffer buffer) {
+		int nodes = buffer.getInt();
+		int edges = buffer.getInt();
+		int[] offsets = readInts(buffer, nodes + 1);
+		int[] targets = readInts(buffer, edges);
+		int[] weights = readInts(buffer, edges);
+
+		return new CompactGraph(offsets, targets, weights);
+	}
+}
@@ -8,132 +8,179 @@ public class HierarchicalClustering {
 
     private Map<String, Map<String, Double>> couplingData;
     private Node dendrogram;
+    private Linkage linkage;
 
     public HierarchicalClustering(Map<String, Map<String, Double>> couplingData) {
+        this(couplingData, true);
+    }
+
+    public HierarchicalClustering(Map<String, Map<String, Double>> couplingData, boolean printDendrogram) {
         this.couplingData = couplingData;
         this.dendrogram = performClustering();
-        printFullDendrogram();
+        if (printDendrogram) printFullDendrogram();
     }
 
-    private Node performClustering() {
-        List<Cluster> clusters = initializeClusters();
-
-        while (clusters.size() > 1) {
-            ClusterPair closestPair = findClosestClusters(clusters);
-            Cluster mergedCluster = mergeClusters(closestPair);
-            clusters.remove(closestPair.c1);
-            clusters.remove(closestPair.c2);
-            clusters.add(mergedCluster);
-        }
-
-        return clusters.get(0).root;
+    public Node getDendrogram() {
+        return dendrogram;
     }
 
-    private List<Cluster> initializeClusters() {
-        List<Cluster> clusters = new ArrayList<>();
-        for (String className : couplingData.keySet()) {
-            clusters.add(new Cluster(new Node(className)));
-        }
-        return clusters;
+    public Linkage getLinkage() {
+        return linkage;
     }
 
-    private ClusterPair findClosestClusters(List<Cluster> clusters) {
-        ClusterPair closestPair = null;
-        double maxCoupling = -1;
-
-        for (int i = 0; i < clusters.size(); i++) {
-            for (int j = i + 1; j < clusters.size(); j++) {
-                double coupling = getCoupling(clusters.get(i), clusters.get(j));
-                if (coupling > maxCoupling) {
-                    maxCoupling = coupling;
-                    closestPair = new ClusterPair(clusters.get(i), clusters.get(j));
-                }
-            }
-        }
+    // Découpe le dendrogramme en k clusters en annulant les k - 1 dernières fusions ; au-delà
+    // du nombre de classes, chaque classe forme son propre cluster
+    public List<Set<String>> cut(int k) {
+        if (k < 1) throw new IllegalArgumentException("nombre de clusters invalide : " + k);
 
-        return closestPair;
-    }
+        int n = linkage.getNbLeaves();
+        int[] parent = new int[n + linkage.getNbMerges()];
+        for (int i = 0; i < parent.length; i++) parent[i] = i;
 
-    private Cluster mergeClusters(ClusterPair pair) {
-        Node mergedNode = new Node(pair.c1.root, pair.c2.root);
-        return new Cluster(mergedNode);
-    }
+        for (int merge = 0; merge < linkage.getNbMerges() - (k - 1); merge++) {
+            parent[linkage.getLeft(merge)] = n + merge;
+            parent[linkage.getRight(merge)] = n + merge;
+        }
 
-    private double getCoupling(Cluster c1, Cluster c2) {
-        double coupling = 0;
-        for (String class1 : c1.getClassNames()) {
-            for (String class2 : c2.getClassNames()) {
-                coupling += couplingData.getOrDefault(class1, new HashMap<>()).getOrDefault(class2, 0.0);
-            }
+        Map<Integer, Set<String>> clusters = new LinkedHashMap<>();
+        for (int leaf = 0; leaf < n; leaf++) {
+            int root = leaf;
+            while (parent[root] != root) root = parent[root];
+            clusters.computeIfAbsent(root, id -> new LinkedHashSet<>()).add(linkage.getLeaf(leaf));
         }
-        return coupling / (c1.size() * c2.size());
+
+        return new ArrayList<>(clusters.values());
     }
 
-    private static class Cluster {
-        Node root;
+    // Classification déléguée à ClusteringEngine (O(n²)), puis reconstruction de l'arbre
+    private Node performClustering() {
+        linkage = new ClusteringEngine(couplingData.keySet(), couplingData).cluster();
+        Node[] nodes = new Node[linkage.getNbLeaves() + linkage.getNbMerges()];
 
-        public Cluster(Node root) {
-            this.root = root;
+        for (int i = 0; i < linkage.getNbLeaves(); i++) {
+            nodes[i] = new Node(linkage.getLeaf(i));
         }
 
-        public int size() {
-            return root.getClassNames().size();
+        for (int k = 0; k < linkage.getNbMerges(); k++) {
+            int id = linkage.getNbLeaves() + k;
+            nodes[id] = new Node(nodes[linkage.getLeft(k)], nodes[linkage.getRight(k)],
+                    linkage.getCrossCoupling(k));
         }
 
-        public Set<String> getClassNames() {
-            return root.getClassNames();
-        }
+        return linkage.getRoot() < 0 ? null : nodes[linkage.getRoot()];
     }
 
-    private static class Node {
-        String className;
-        Node left;
-        Node right;
+    // Nœud du dendrogramme. Chaque nœud mémorise la somme des couplages entre ses membres
+    // (sur les couples ordonnés de classes distinctes) et le nombre de ces couples : le
+    // couplage moyen d'un cluster s'obtient en O(1), sans reparcourir ses paires.
+    public static class Node {
+        private String className;
+        private Node left;
+        private Node right;
+        private int size;
+        private double internalCoupling;
 
         public Node(String className) {
             this.className = className;
+            this.size = 1;
         }
 
-        public Node(Node left, Node right) {
+        public Node(Node left, Node right, double crossCoupling) {
             this.left = left;
             this.right = right;
+            this.size = left.size + right.size;
+            this.internalCoupling = left.internalCoupling + right.internalCoupling + crossCoupling;
+        }
+
+        public boolean isLeaf() {
+            return className != null;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public Node getLeft() {
+            return left;
+        }
+
+        public Node getRight() {
+            return right;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double getInternalCoupling() {
+            return internalCoupling;
+        }
+
+        public long getPairCount() {
+            return (long) size * (size - 1);
+        }
+
+        public double getAverageCoupling() {
+            return size > 1 ? internalCoupling / getPairCount() : 0.0;
         }
 
         public Set<String> getClassNames() {
-            Set<String> classNames = new HashSet<>();
-            if (className != null) classNames.add(className);
-            if (left != null) classNames.addAll(left.getClassNames());
-            if (right != null) classNames.addAll(right.getClassNames());
+            Set<String> classNames = new LinkedHashSet<>();
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(this);
+
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                if (node.className != null) classNames.add(node.className);
+                if (node.right != null) stack.push(node.right);
+                if (node.left != null) stack.push(node.left);
+            }
             return classNames;
         }
     }
 
-    private static class ClusterPair {
-        Cluster c1;
-        Cluster c2;
-
-        public ClusterPair(Cluster c1, Cluster c2) {
-            this.c1 = c1;
-            this.c2 = c2;
+    // Parcours préfixe avec une pile explicite : un arbre en chaîne de 20 000 classes
+    // déborderait la pile d'appels. L'indentation est partagée dans un StringBuilder,
+    // chaque entrée de la pile ne retient que la longueur du préfixe de son parent.
+    private void printDendrogram(Node root) {
+        if (root == null) return;
+
+        StringBuilder indent = new StringBuilder();
+        Deque<PrintFrame> stack = new ArrayDeque<>();
+        stack.push(new PrintFrame(root, true, 0));
+
+        while (!stack.isEmpty()) {
+            PrintFrame frame = stack.pop();
+            Node node = frame.node;
+            indent.setLength(frame.indentLength);
+
+            if (node.className != null) {
+                System.out.println(indent + (frame.isLeft ? "|-- " : "\\-- ") + node.className);
+            } else {
+                System.out.println(indent + (frame.isLeft ? "|-- " : "\\-- ") + "Cluster:");
+                indent.append(frame.isLeft ? "|   " : "    ");
+                if (node.right != null) stack.push(new PrintFrame(node.right, false, indent.length()));
+                if (node.left != null) stack.push(new PrintFrame(node.left, true, indent.length()));
+            }
         }
     }
 
-    private void printDendrogram(Node node, String indent, boolean isLeft) {
-        if (node == null) return;
+    private static class PrintFrame {
+        private final Node node;
+        private final boolean isLeft;
+        private final int indentLength;
 
-        if (node.className != null) {
-            System.out.println(indent + (isLeft ? "|-- " : "\\-- ") + node.className);
-        } else {
-            System.out.println(indent + (isLeft ? "|-- " : "\\-- ") + "Cluster:");
-            printDendrogram(node.left, indent + (isLeft ? "|   " : "    "), true);
-            printDendrogram(node.right, indent + (isLeft ? "|   " : "    "), false);
+        PrintFrame(Node node, boolean isLeft, int indentLength) {
+            this.node = node;
+            this.isLeft = isLeft;
+            this.indentLength = indentLength;
         }
     }
 
     private void printFullDendrogram() {
         System.out.println();
         System.out.println(ansi().fgGreen().a("=== Dendrogramme : ===").reset());
-        printDendrogram(dendrogram, "", true);
+        printDendrogram(dendrogram);
         System.out.println(ansi().fgGreen().a("=====================================").reset());
         System.out.println();
     }
@@ -0,0 +1,226 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Couplage maintenu au fil des ajouts et retraits d'invocations, sans recalcul complet.
+// Pour chaque classe (nom normalisé) sont conservés le total de ses invocations sortantes
+// et le nombre d'invocations vers chaque destination ; couplage(A, B) = n(A, B) / total(A).
+// Une variation du nombre d'invocations de A change toute la ligne de A (son total change) :
+// seules ces lignes sont comparées à leur état précédent lors de commit(), qui rend les
+// couples dont le couplage a changé.
+//
+// Comme dans CouplingEngine, les invocations d'une classe vers elle-même sont ignorées.
+public class IncrementalCoupling {
+	/* ATTRIBUTES */
+	private SymbolTable classes = new SymbolTable();
+	private List<Row> rows = new ArrayList<>();
+	// État au dernier commit des lignes modifiées depuis
+	private Map<Integer, Row> previousRows = new HashMap<>();
+
+	/* METHODS */
+	// À partir du graphe fusionné (cf. CallGraph.getCouplingEngine)
+	public static IncrementalCoupling build(SymbolTable mergedClasses, CompactGraph mergedInvocations) {
+		IncrementalCoupling coupling = new IncrementalCoupling();
+
+		for (int source = 0; source < mergedInvocations.getNbNodes(); source++) {
+			if (mergedInvocations.outDegree(source) == 0)
+				continue;
+
+			Row row = coupling.getRow(coupling.classes.intern(mergedClasses.getName(source)));
+			for (int edge = mergedInvocations.firstEdge(source); edge < mergedInvocations.lastEdge(source); edge++)
+				row.add(coupling.classes.intern(mergedClasses.getName(mergedInvocations.target(edge))),
+						mergedInvocations.weight(edge));
+		}
+
+		return coupling;
+	}
+
+	private Row getRow(int id) {
+		while (rows.size() <= id)
+			rows.add(new Row());
+
+		return rows.get(id);
+	}
+
+	// delta invocations de source vers destination (négatif pour un retrait)
+	public void addInvocations(String source, String destination, int delta) {
+		if (delta == 0 || source.equals(destination))
+			return;
+
+		int sourceId = classes.intern(source);
+		int destinationId = classes.intern(destination);
+		Row row = getRow(sourceId);
+
+		if (!previousRows.containsKey(sourceId))
+			previousRows.put(sourceId, row.copy());
+		row.add(destinationId, delta);
+	}
+
+	public boolean hasPendingChanges() {
+		return !previousRows.isEmpty();
+	}
+
+	// Couples dont le couplage a changé depuis le commit précédent, triés par source puis
+	// destination ; un couple qui apparaît a 0 pour valeur précédente, un couple qui
+	// disparaît a 0 pour nouvelle valeur
+	public List<PairChange> commit() {
+		List<PairChange> changes = new ArrayList<>();
+
+		for (Map.Entry<Integer, Row> entry : previousRows.entrySet()) {
+			String source = classes.getName(entry.getKey());
+			Row before = entry.getValue();
+			Row after = rows.get(entry.getKey());
+			int i = 0;
+			int j = 0;
+
+			// Fusion des deux lignes, triées par identifiant de destination
+			while (i < before.size || j < after.size) {
+				int target = Math.min(i < before.size ? before.targets[i] : Integer.MAX_VALUE,
+						j < after.size ? after.targets[j] : Integer.MAX_VALUE);
+				double previous = i < before.size && before.targets[i] == target ? before.value(i++) : 0.0;
+				double current = j < after.size && after.targets[j] == target ? after.value(j++) : 0.0;
+
+				if (previous != current)
+					changes.add(new PairChange(source, classes.getName(target), previous, current));
+			}
+		}
+
+		previousRows.clear();
+		changes.sort(Comparator.comparing(PairChange::getSource).thenComparing(PairChange::getDestination));
+		return changes;
+	}
+
+	public double getCoupling(String classA, String classB) {
+		int source = classes.getId(classA);
+		int destination = classes.getId(classB);
+
+		if (source < 0 || destination < 0 || source >= rows.size())
+			return 0.0;
+
+		Row row = rows.get(source);
+		int index = Arrays.binarySearch(row.targets, 0, row.size, destination);
+		return index >= 0 ? row.value(index) : 0.0;
+	}
+
+	public Map<String, Double> getRow(String className) {
+		return getRow(className, null);
+	}
+
+	// Ligne restreinte aux destinations de allowed (null pour toutes), comme CouplingEngine.computeRow
+	private Map<String, Double> getRow(String className, Set<String> allowed) {
+		Map<String, Double> values = new HashMap<>();
+		int source = classes.getId(className);
+
+		if (source < 0 || source >= rows.size())
+			return values;
+
+		Row row = rows.get(source);
+		for (int i = 0; i < row.size; i++) {
+			String destination = classes.getName(row.targets[i]);
+			if (allowed == null || allowed.contains(destination))
+				values.put(destination, row.value(i));
+		}
+
+		return values;
+	}
+
+	// Même résultat que CouplingEngine.computeAll, sans reconstruire le graphe fusionné
+	public Map<String, Map<String, Double>> toMap(Collection<String> allClasses) {
+		Set<String> allowed = allClasses instanceof Set ? (Set<String>) allClasses : new HashSet<>(allClasses);
+		Map<String, Map<String, Double>> couplings = new HashMap<>();
+
+		for (String className : allClasses)
+			couplings.put(className, getRow(className, allowed));
+
+		return couplings;
+	}
+
+	// Destinations triées par identifiant, avec leur nombre d'invocations
+	private static class Row {
+		int[] targets = new int[4];
+		int[] counts = new int[4];
+		int size;
+		long total;
+
+		void add(int target, int delta) {
+			int index = Arrays.binarySearch(targets, 0, size, target);
+
+			if (index >= 0) {
+				// Un retrait ne peut pas faire passer le nombre d'invocations sous zéro
+				int applied = Math.max(delta, -counts[index]);
+				counts[index] += applied;
+				total += applied;
+
+				if (counts[index] == 0) {
+					System.arraycopy(targets, index + 1, targets, index, size - index - 1);
+					System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+					size--;
+				}
+			} else if (delta > 0) {
+				index = -index - 1;
+				if (size == targets.length) {
+					targets = Arrays.copyOf(targets, 2 * size);
+					counts = Arrays.copyOf(counts, 2 * size);
+				}
+
+				System.arraycopy(targets, index, targets, index + 1, size - index);
+				System.arraycopy(counts, index, counts, index + 1, size - index);
+				targets[index] = target;
+				counts[index] = delta;
+				size++;
+				total += delta;
+			}
+		}
+
+		double value(int index) {
+			return counts[index] / (double) total;
+		}
+
+		Row copy() {
+			Row copy = new Row();
+			copy.targets = Arrays.copyOf(targets, Math.max(1, size));
+			copy.counts = Arrays.copyOf(counts, Math.max(1, size));
+			copy.size = size;
+			copy.total = total;
+			return copy;
+		}
+	}
+
+	public static class PairChange {
+		private String source;
+		private String destination;
+		private double previousValue;
+		private double value;
+
+		public PairChange(String source, String destination, double previousValue, double value) {
+			this.source = source;
+			this.destination = destination;
+			this.previousValue = previousValue;
+			this.value = value;
+		}
+
+		public String getSource() {
+			return source;
+		}
+
+		public String getDestination() {
+			return destination;
+		}
+
+		public double getPreviousValue() {
+			return previousValue;
+		}
+
+		public double getValue() {
+			return value;
+		}
+	}
+}
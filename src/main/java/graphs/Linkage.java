@@ -0,0 +1,64 @@
+package graphs;
+
+// Résultat d'une classification hiérarchique sous forme de tableaux primitifs.
+// Les feuilles portent les identifiants 0..n-1 ; la fusion k crée le cluster n + k,
+// qui regroupe left[k] et right[k] (left étant toujours le plus ancien des deux).
+public class Linkage {
+	/* ATTRIBUTES */
+	private String[] leaves;
+	private int[] left;
+	private int[] right;
+	private double[] similarity;
+	private double[] crossCoupling;
+	private int[] size;
+
+	/* CONSTRUCTOR */
+	public Linkage(String[] leaves, int[] left, int[] right, double[] similarity,
+			double[] crossCoupling, int[] size) {
+		this.leaves = leaves;
+		this.left = left;
+		this.right = right;
+		this.similarity = similarity;
+		this.crossCoupling = crossCoupling;
+		this.size = size;
+	}
+
+	/* METHODS */
+	public int getNbLeaves() {
+		return leaves.length;
+	}
+
+	public int getNbMerges() {
+		return left.length;
+	}
+
+	public String getLeaf(int id) {
+		return leaves[id];
+	}
+
+	public int getLeft(int merge) {
+		return left[merge];
+	}
+
+	public int getRight(int merge) {
+		return right[merge];
+	}
+
+	// Couplage moyen entre les deux clusters fusionnés
+	public double getSimilarity(int merge) {
+		return similarity[merge];
+	}
+
+	// Somme des couplages dans les deux sens entre les membres des deux clusters fusionnés
+	public double getCrossCoupling(int merge) {
+		return crossCoupling[merge];
+	}
+
+	public int getSize(int merge) {
+		return size[merge];
+	}
+
+	public int getRoot() {
+		return leaves.length == 0 ? -1 : leaves.length + left.length - 1;
+	}
+}
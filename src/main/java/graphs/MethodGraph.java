@@ -0,0 +1,142 @@
+package graphs;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Graphe d'appel au niveau des méthodes : les nœuds sont les identifiants de la table des
+// méthodes du CallGraph, les arcs (appelant, appelé) sont gardés en CSR dans les deux sens.
+// Les requêtes transitives sont des parcours en largeur par niveaux : la frontière et les
+// méthodes déjà atteintes sont des BitSet, chaque arc est examiné au plus une fois.
+//
+// Une méthode n'est dans le résultat que si elle est atteinte par au moins un appel : la
+// méthode de départ n'y figure que si elle est récursive (directement ou non).
+public class MethodGraph {
+	/* ATTRIBUTES */
+	private SymbolTable methods;
+	private CompactGraph callees;
+	private CompactGraph callers;
+
+	/* CONSTRUCTOR */
+	public MethodGraph(SymbolTable methods, CompactGraph callees) {
+		this.methods = methods;
+		this.callees = callees;
+		this.callers = transpose(callees);
+	}
+
+	/* METHODS */
+	// Arcs inversés, triés par appelant puisque les appelants sont parcourus dans l'ordre
+	private static CompactGraph transpose(CompactGraph graph) {
+		int nodes = graph.getNbNodes();
+		int[] offsets = new int[nodes + 1];
+		int[] targets = new int[graph.getNbEdges()];
+		int[] weights = new int[graph.getNbEdges()];
+
+		for (int edge = 0; edge < graph.getNbEdges(); edge++)
+			offsets[graph.target(edge) + 1]++;
+		for (int node = 0; node < nodes; node++)
+			offsets[node + 1] += offsets[node];
+
+		int[] next = new int[nodes];
+		for (int source = 0; source < nodes; source++) {
+			for (int edge = graph.firstEdge(source); edge < graph.lastEdge(source); edge++) {
+				int target = graph.target(edge);
+				int position = offsets[target] + next[target]++;
+				targets[position] = source;
+				weights[position] = graph.weight(edge);
+			}
+		}
+
+		return new CompactGraph(offsets, targets, weights);
+	}
+
+	public CompactGraph getCallees() {
+		return callees;
+	}
+
+	public CompactGraph getCallers() {
+		return callers;
+	}
+
+	public int getId(String method) {
+		return methods.getId(method);
+	}
+
+	public String getName(int id) {
+		return methods.getName(id);
+	}
+
+	public BitSet getTransitiveCallees(int method) {
+		return reach(callees, method);
+	}
+
+	public BitSet getTransitiveCallers(int method) {
+		return reach(callers, method);
+	}
+
+	// Noms triés ; vide si la méthode est inconnue
+	public Set<String> getTransitiveCallees(String method) {
+		return getNames(getTransitiveCallees(getId(method)));
+	}
+
+	public Set<String> getTransitiveCallers(String method) {
+		return getNames(getTransitiveCallers(getId(method)));
+	}
+
+	public Set<String> getCallees(String method) {
+		return getNames(neighbours(callees, getId(method)));
+	}
+
+	public Set<String> getCallers(String method) {
+		return getNames(neighbours(callers, getId(method)));
+	}
+
+	public Set<String> getNames(BitSet ids) {
+		Set<String> names = new TreeSet<>();
+
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
+			names.add(methods.getName(id));
+
+		return names;
+	}
+
+	private static BitSet neighbours(CompactGraph graph, int node) {
+		BitSet neighbours = new BitSet();
+
+		if (node >= 0 && node < graph.getNbNodes())
+			for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++)
+				neighbours.set(graph.target(edge));
+
+		return neighbours;
+	}
+
+	private static BitSet reach(CompactGraph graph, int start) {
+		BitSet reached = new BitSet(graph.getNbNodes());
+		if (start < 0 || start >= graph.getNbNodes())
+			return reached;
+
+		BitSet frontier = new BitSet(graph.getNbNodes());
+		BitSet next = new BitSet(graph.getNbNodes());
+		frontier.set(start);
+
+		while (!frontier.isEmpty()) {
+			for (int node = frontier.nextSetBit(0); node >= 0; node = frontier.nextSetBit(node + 1)) {
+				for (int edge = graph.firstEdge(node); edge < graph.lastEdge(node); edge++) {
+					int target = graph.target(edge);
+					if (!reached.get(target)) {
+						reached.set(target);
+						next.set(target);
+					}
+				}
+			}
+
+			// Les deux frontières sont échangées plutôt que réallouées à chaque niveau
+			BitSet done = frontier;
+			frontier = next;
+			next = done;
+			next.clear();
+		}
+
+		return reached;
+	}
+}
@@ -6,10 +6,16 @@ public class ModuleIdentifier {
     private Map<String, Map<String, Double>> couplingGraph;
     private double CP = 0.1;
     private int maxModules;
+    private boolean verbose;
 
     public ModuleIdentifier(Map<String, Map<String, Double>> couplingGraph) {
+        this(couplingGraph, true);
+    }
+
+    public ModuleIdentifier(Map<String, Map<String, Double>> couplingGraph, boolean verbose) {
         this.couplingGraph = couplingGraph;
         this.maxModules = couplingGraph.size() / 2;
+        this.verbose = verbose;
     }
 
     public void identifyModules(List<Set<String>> clusters) {
@@ -45,4 +51,37 @@ public class ModuleIdentifier {
         }
     }
 
+    // Parcours descendant du dendrogramme : un nœud dont le couplage moyen dépasse CP
+    // devient un module, sinon on examine ses deux sous-clusters. Le couplage moyen est
+    // mémorisé dans chaque nœud, le parcours est donc linéaire en nombre de nœuds.
+    public List<Set<String>> identifyModules(HierarchicalClustering.Node dendrogram) {
+        List<Set<String>> modules = new ArrayList<>();
+        Deque<HierarchicalClustering.Node> stack = new ArrayDeque<>();
+        if (dendrogram != null) stack.push(dendrogram);
+
+        while (!stack.isEmpty() && modules.size() < maxModules) {
+            HierarchicalClustering.Node node = stack.pop();
+            double averageCoupling = node.getAverageCoupling();
+
+            if (averageCoupling > CP) {
+                Set<String> module = node.getClassNames();
+                modules.add(module);
+                if (verbose)
+                    System.out.println("Module identifié : " + module + ", Couplage moyen : " + averageCoupling);
+            } else if (!node.isLeaf()) {
+                stack.push(node.getRight());
+                stack.push(node.getLeft());
+            }
+        }
+
+        if (verbose) {
+            System.out.println("\nModules identifiés :");
+            for (Set<String> module : modules) {
+                System.out.println(module);
+            }
+        }
+
+        return modules;
+    }
+
 }
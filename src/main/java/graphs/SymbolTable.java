@@ -0,0 +1,73 @@
+package graphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Associe chaque nom (classe ou méthode) à un identifiant entier dense. Une seule instance
+// de chaque chaîne est conservée, les arcs du graphe ne manipulent plus que des int.
+public class SymbolTable {
+	/* ATTRIBUTES */
+	private Map<String, Integer> ids;
+	private List<String> names;
+
+	/* CONSTRUCTOR */
+	public SymbolTable() {
+		this.ids = new HashMap<>();
+		this.names = new ArrayList<>();
+	}
+
+	// Table relue d'un instantané (cf. GraphSnapshot) : l'index des noms n'est construit
+	// qu'au premier accès par nom
+	SymbolTable(String[] names) {
+		this.names = new ArrayList<>(Arrays.asList(names));
+	}
+
+	/* METHODS */
+	private Map<String, Integer> getIds() {
+		if (ids == null) {
+			ids = new HashMap<>();
+			for (int id = 0; id < names.size(); id++)
+				ids.put(names.get(id), id);
+		}
+
+		return ids;
+	}
+
+	public int intern(String name) {
+		Integer id = getIds().get(name);
+
+		if (id == null) {
+			id = names.size();
+			ids.put(name, id);
+			names.add(name);
+		}
+
+		return id;
+	}
+
+	public int getId(String name) {
+		Integer id = getIds().get(name);
+		return id == null ? -1 : id;
+	}
+
+	public String getName(int id) {
+		return names.get(id);
+	}
+
+	public boolean contains(String name) {
+		return getIds().containsKey(name);
+	}
+
+	public int size() {
+		return names.size();
+	}
+
+	public Set<String> getNames() {
+		return Collections.unmodifiableSet(getIds().keySet());
+	}
+}
@@ -0,0 +1,37 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Émis pour chaque fusion de la classification hiérarchique. La durée couvre la recherche
+// des plus proches voisins réciproques depuis la fusion précédente, puis la mise à jour.
+@Name("hai913.ClusterMerge")
+@Label("Fusion de clusters")
+@Category({ "HAI913", "Classification" })
+@Description("Fusion de deux clusters par la chaîne des plus proches voisins")
+@Enabled(false)
+@StackTrace(false)
+public class ClusterMergeEvent extends jdk.jfr.Event {
+	/* ATTRIBUTES */
+	@Label("Représentant gauche")
+	public String left;
+
+	@Label("Représentant droit")
+	public String right;
+
+	@Label("Taille gauche")
+	public int leftSize;
+
+	@Label("Taille droite")
+	public int rightSize;
+
+	@Label("Similarité")
+	public double similarity;
+
+	@Label("Longueur de la chaîne")
+	public int chainLength;
+}
@@ -0,0 +1,36 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Émis pour chaque construction d'un CallGraph (complète ou incrémentale)
+@Name("hai913.CollectionPass")
+@Label("Construction du graphe d'appel")
+@Category({ "HAI913", "Analyse" })
+@Description("Analyse d'un projet et construction de son graphe d'appel")
+@Enabled(false)
+@StackTrace(false)
+public class CollectionPassEvent extends jdk.jfr.Event {
+	/* ATTRIBUTES */
+	@Label("Projet")
+	public String project;
+
+	@Label("Incrémentale")
+	public boolean incremental;
+
+	@Label("Fichiers analysés")
+	public long filesParsed;
+
+	@Label("Fichiers relus du cache")
+	public long filesFromCache;
+
+	@Label("Méthodes")
+	public long methods;
+
+	@Label("Invocations")
+	public long invocations;
+}
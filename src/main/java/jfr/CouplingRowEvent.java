@@ -0,0 +1,27 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Émis pour chaque ligne de la matrice de couplage
+@Name("hai913.CouplingRow")
+@Label("Ligne de couplage")
+@Category({ "HAI913", "Couplage" })
+@Description("Calcul des couplages sortants d'une classe")
+@Enabled(false)
+@StackTrace(false)
+public class CouplingRowEvent extends jdk.jfr.Event {
+	/* ATTRIBUTES */
+	@Label("Classe")
+	public String className;
+
+	@Label("Invocations sortantes")
+	public long outgoingInvocations;
+
+	@Label("Classes couplées")
+	public int coupledClasses;
+}
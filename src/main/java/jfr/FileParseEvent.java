@@ -0,0 +1,41 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Émis pour chaque fichier livré par le parseur. La durée de l'événement couvre la collecte
+// des faits ; parseTime est l'estimation de l'analyse et de la résolution du fichier.
+@Name("hai913.FileParse")
+@Label("Analyse d'un fichier")
+@Category({ "HAI913", "Analyse" })
+@Description("Analyse JDT et collecte des faits d'un fichier source")
+@Enabled(false)
+@StackTrace(false)
+public class FileParseEvent extends jdk.jfr.Event {
+	/* ATTRIBUTES */
+	@Label("Fichier")
+	public String path;
+
+	@Label("Taille")
+	@DataAmount
+	public long size;
+
+	@Label("Analyse et résolution")
+	@Timespan
+	public long parseTime;
+
+	@Label("Bindings résolus")
+	public int resolvedBindings;
+
+	@Label("Bindings non résolus")
+	public int unresolvedBindings;
+
+	@Label("Invocations")
+	public int invocations;
+}
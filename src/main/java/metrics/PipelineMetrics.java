@@ -0,0 +1,266 @@
+package metrics;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import utility.JsonWriter;
+
+// Mesures d'une analyse : temps et octets alloués par phase, fichiers analysés par seconde,
+// bindings résolus ou non, arcs ajoutés et fichiers les plus lents.
+// Les phases s'imbriquent : le temps d'une phase interne est retiré de la phase englobante.
+// Chaque start() est suivi d'un stop() dans un bloc finally.
+// Une instance n'est utilisée que depuis un seul thread.
+public class PipelineMetrics {
+	/* ATTRIBUTES */
+	private Map<String, PhaseStats> phases = new LinkedHashMap<>();
+	private Deque<Phase> running = new ArrayDeque<>();
+	private PriorityQueue<FileTiming> slowestFiles =
+			new PriorityQueue<>(Comparator.comparingLong((FileTiming file) -> file.nanos));
+	private int slowestFilesLimit = 10;
+	private String mode = "bindings";
+	private long filesParsed;
+	private long filesFromCache;
+	private long bytesParsed;
+	private long resolvedBindings;
+	private long failedBindings;
+	private long edgesAdded;
+
+	/* METHODS */
+	public Phase start(String name) {
+		long now = System.nanoTime();
+		long allocated = allocatedBytes();
+
+		if (!running.isEmpty())
+			running.peek().pause(now, allocated);
+
+		Phase phase = new Phase(name, now, allocated);
+		running.push(phase);
+		return phase;
+	}
+
+	// Mode de résolution des receveurs : "bindings" (JDT) ou "rapide" (index des déclarations)
+	public String getMode() {
+		return mode;
+	}
+
+	public void setMode(String mode) {
+		this.mode = mode;
+	}
+
+	public void setSlowestFilesLimit(int slowestFilesLimit) {
+		this.slowestFilesLimit = slowestFilesLimit;
+	}
+
+	public void recordFile(String path, long size, long nanos) {
+		filesParsed++;
+		bytesParsed += size;
+		slowestFiles.add(new FileTiming(path, size, nanos));
+
+		if (slowestFiles.size() > slowestFilesLimit)
+			slowestFiles.poll();
+	}
+
+	public void addFilesFromCache(long count) {
+		filesFromCache += count;
+	}
+
+	public void addBindings(long resolved, long failed) {
+		resolvedBindings += resolved;
+		failedBindings += failed;
+	}
+
+	public void addEdges(long count) {
+		edgesAdded += count;
+	}
+
+	public long getFilesParsed() {
+		return filesParsed;
+	}
+
+	public long getFilesFromCache() {
+		return filesFromCache;
+	}
+
+	public long getEdgesAdded() {
+		return edgesAdded;
+	}
+
+	public long getResolvedBindings() {
+		return resolvedBindings;
+	}
+
+	public long getFailedBindings() {
+		return failedBindings;
+	}
+
+	public double getUnresolvedRatio() {
+		long total = resolvedBindings + failedBindings;
+		return total > 0 ? (double) failedBindings / total : 0.0;
+	}
+
+	public double getPhaseMillis(String name) {
+		PhaseStats stats = phases.get(name);
+		return stats == null ? 0.0 : stats.nanos / 1e6;
+	}
+
+	// Débit de l'analyse syntaxique, visiteurs compris
+	public double getFilesPerSecond() {
+		double seconds = (getPhaseMillis("parse") + getPhaseMillis("visit")) / 1e3;
+		return seconds > 0 ? filesParsed / seconds : 0.0;
+	}
+
+	// Pic de tas de tout le processus depuis le dernier resetPeakHeap(), pas celui d'une
+	// analyse : des projets analysés en parallèle y contribuent tous
+	public static long getPeakHeapBytes() {
+		long peak = 0;
+
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+
+		return peak;
+	}
+
+	public static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	public List<FileTiming> getSlowestFiles() {
+		List<FileTiming> files = new ArrayList<>(slowestFiles);
+		files.sort(Comparator.comparingLong((FileTiming file) -> file.nanos).reversed());
+		return files;
+	}
+
+	public void printSummary(PrintStream out) {
+		out.println("=== Métriques de l'analyse ===");
+		for (Map.Entry<String, PhaseStats> entry : phases.entrySet()) {
+			PhaseStats stats = entry.getValue();
+			out.printf("%-12s %10.1f ms %10.1f Mo alloués%n", entry.getKey(),
+					stats.nanos / 1e6, stats.allocatedBytes / (1024.0 * 1024.0));
+		}
+		out.printf("Fichiers analysés : %d (%.1f fichiers/s, %d depuis le cache)%n",
+				filesParsed, getFilesPerSecond(), filesFromCache);
+		out.printf("Receveurs résolus (%s) : %d, non résolus : %d (%.1f %%)%n", mode,
+				resolvedBindings, failedBindings, 100 * getUnresolvedRatio());
+		out.printf("Arcs ajoutés : %d%n", edgesAdded);
+
+		if (!slowestFiles.isEmpty()) {
+			out.println("Fichiers les plus lents :");
+			for (FileTiming file : getSlowestFiles())
+				out.printf("  %8.1f ms  %s (%d octets)%n", file.nanos / 1e6, file.path, file.size);
+		}
+	}
+
+	public void writeJson(JsonWriter json) throws IOException {
+		json.beginObject();
+		json.name("phases").beginObject();
+		for (Map.Entry<String, PhaseStats> entry : phases.entrySet()) {
+			json.name(entry.getKey()).beginObject();
+			json.name("millis").value(entry.getValue().nanos / 1e6);
+			json.name("allocatedBytes").value(entry.getValue().allocatedBytes);
+			json.endObject();
+		}
+		json.endObject();
+		json.name("filesParsed").value(filesParsed);
+		json.name("filesFromCache").value(filesFromCache);
+		json.name("bytesParsed").value(bytesParsed);
+		json.name("filesPerSecond").value(getFilesPerSecond());
+		json.name("mode").value(mode);
+		json.name("resolvedBindings").value(resolvedBindings);
+		json.name("failedBindings").value(failedBindings);
+		json.name("edgesAdded").value(edgesAdded);
+		json.name("slowestFiles").beginArray();
+		for (FileTiming file : getSlowestFiles()) {
+			json.beginObject();
+			json.name("path").value(file.path);
+			json.name("size").value(file.size);
+			json.name("millis").value(file.nanos / 1e6);
+			json.endObject();
+		}
+		json.endArray();
+		json.endObject();
+	}
+
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if (threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes();
+
+		return 0;
+	}
+
+	public class Phase {
+		private String name;
+		private long start;
+		private long allocatedAtStart;
+
+		private Phase(String name, long start, long allocatedAtStart) {
+			this.name = name;
+			this.start = start;
+			this.allocatedAtStart = allocatedAtStart;
+		}
+
+		private void pause(long now, long allocated) {
+			PhaseStats stats = phases.computeIfAbsent(name, key -> new PhaseStats());
+			stats.nanos += now - start;
+			stats.allocatedBytes += allocated - allocatedAtStart;
+		}
+
+		public void stop() {
+			long now = System.nanoTime();
+			long allocated = allocatedBytes();
+
+			pause(now, allocated);
+			running.remove(this);
+
+			if (!running.isEmpty()) {
+				running.peek().start = now;
+				running.peek().allocatedAtStart = allocated;
+			}
+		}
+	}
+
+	private static class PhaseStats {
+		long nanos;
+		long allocatedBytes;
+	}
+
+	public static class FileTiming {
+		private String path;
+		private long size;
+		private long nanos;
+
+		public FileTiming(String path, long size, long nanos) {
+			this.path = path;
+			this.size = size;
+			this.nanos = nanos;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public double getMillis() {
+			return nanos / 1e6;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package parsers;
+
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+
+// Requestor prévenu du début de chaque lot passé à createASTs
+public abstract class BatchASTRequestor extends FileASTRequestor {
+	
+	public void beginBatch(String[] sourcePaths) {
+	}
+}
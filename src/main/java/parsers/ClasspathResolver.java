@@ -0,0 +1,568 @@
+package parsers;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+// Classpath de compilation d'un projet, fourni à JDT pour résoudre les bindings : les
+// classes du JDK (cf. JdkClasspath), les dépendances déclarées dans le pom.xml et présentes
+// dans le dépôt Maven local (~/.m2/repository), et les entrées données explicitement.
+//
+// Les dépendances transitives sont résolues comme Maven : parcours en largeur, la version
+// la plus proche de la racine l'emporte, les dépendances optionnelles et les exclusions
+// sont respectées, les pom parents et les BOM importés fournissent propriétés et versions.
+// Aucun téléchargement : un artefact absent du dépôt local est simplement ignoré.
+//
+// Les jars dont aucun paquetage n'est référencé par le projet (ni nécessaire à un jar
+// référencé) sont écartés, à l'aide de l'index des paquetages par jar (cf. JarIndex). Sont
+// référencés les paquetages importés, ceux que déclarent les sources (un jar peut fournir
+// des classes du même paquetage, utilisées sans import) et ceux des noms qualifiés écrits
+// dans le code (java.util.List, org.example.Type.CONSTANT). Le repérage est textuel : un
+// type nommé seulement dans une chaîne (réflexion) ou via un paquetage qui ne commence pas
+// par une minuscule n'est pas vu, et son jar n'est gardé que si un autre jar retenu en
+// dépend ; les entrées explicites qui sont des répertoires sont toujours gardées.
+public class ClasspathResolver {
+	/* ATTRIBUTES */
+	private static final List<String> ROOT_SCOPES = Arrays.asList("compile", "provided", "runtime", "system");
+	private static final List<String> TRANSITIVE_SCOPES = Arrays.asList("compile", "runtime");
+	private static final Pattern IMPORT = Pattern.compile("^\\s*import\\s+(?:static\\s+)?([\\w.]+?)(?:\\.\\*)?\\s*;");
+	private static final Pattern TYPE_DECLARATION =
+			Pattern.compile("^\\s*(?:(?:public|protected|private|abstract|final|static|strictfp)\\s+)*(?:class|interface|enum|@interface)\\b");
+	private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;");
+	// Paquetage d'un nom qualifié : identifiants en minuscules suivis d'un nom de type
+	private static final Pattern QUALIFIED_NAME =
+			Pattern.compile("(?<![\\w.])([a-z_$][\\w$]*(?:\\.[a-z_$][\\w$]*)+)\\.[A-Z]");
+	private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)\\}");
+
+	private String projectPath;
+	private File localRepository;
+	private List<String> explicitEntries = new ArrayList<>();
+	private JarIndex jarIndex;
+	private JdkClasspath jdkClasspath;
+	private boolean useBuildFile = true;
+	private Map<String, Pom> poms = new HashMap<>();
+	// Jars des dépendances et, pour chacun, les jars dont il dépend
+	private Map<String, Set<String>> dependencyJars;
+	private List<String> entries;
+
+	/* CONSTRUCTOR */
+	public ClasspathResolver(String projectPath) {
+		this.projectPath = projectPath;
+		this.localRepository = new File(System.getProperty("user.home"), ".m2/repository");
+		this.jdkClasspath = new JdkClasspath();
+	}
+
+	/* METHODS */
+	public void setLocalRepository(File localRepository) {
+		this.localRepository = localRepository;
+		reset();
+	}
+
+	// Le pom.xml est ignoré : seules les entrées explicites (et le JDK) sont utilisées
+	public void setUseBuildFile(boolean useBuildFile) {
+		this.useBuildFile = useBuildFile;
+		reset();
+	}
+
+	public void setJarIndex(JarIndex jarIndex) {
+		this.jarIndex = jarIndex;
+	}
+
+	// Entrées séparées par File.pathSeparator, comme l'option -classpath de javac
+	public void addEntries(String classpath) {
+		for (String entry : classpath.split(Pattern.quote(File.pathSeparator)))
+			if (!entry.trim().isEmpty())
+				explicitEntries.add(new File(entry.trim()).getAbsolutePath());
+		reset();
+	}
+
+	private void reset() {
+		dependencyJars = null;
+		entries = null;
+	}
+
+	public File findBuildFile() {
+		File directory = new File(projectPath).getAbsoluteFile();
+
+		// Le chemin analysé est souvent le dossier src du projet, voire src/main/java
+		for (int depth = 0; depth <= 3 && directory != null; depth++) {
+			File pom = new File(directory, "pom.xml");
+			if (pom.isFile())
+				return pom;
+			directory = directory.getParentFile();
+		}
+
+		return null;
+	}
+
+	// Empreinte du classpath avant filtrage, pour invalider le cache des faits (cf. FactCache)
+	public String getKey() throws IOException {
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		digest.update((System.getProperty("java.version") + ";jdk=" + JdkClasspath.FORMAT_VERSION)
+				.getBytes(StandardCharsets.UTF_8));
+		for (String jar : getDependencyJars().keySet())
+			digest.update((File.pathSeparator + jar + "@" + new File(jar).lastModified())
+					.getBytes(StandardCharsets.UTF_8));
+
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest())
+			key.append(String.format("%02x", b));
+
+		return key.substring(0, 16);
+	}
+
+	public void configure(EclipseJDTASTParser parser) throws IOException {
+		parser.setClasspath(getEntries());
+		parser.setClasspathKey(getKey());
+	}
+
+	public List<String> getEntries() throws IOException {
+		if (entries != null)
+			return entries;
+
+		Set<String> referencedPackages = getReferencedPackages();
+		if (jarIndex == null) {
+			jarIndex = JarIndex.getDefault();
+			jarIndex.load();
+		}
+
+		Map<String, Set<String>> jars = getDependencyJars();
+		Set<String> kept = new LinkedHashSet<>();
+		Deque<String> pending = new ArrayDeque<>();
+
+		for (String jar : jars.keySet())
+			if (isReferenced(jar, referencedPackages, jarIndex))
+				pending.add(jar);
+
+		// Les dépendances d'un jar retenu le sont aussi : ses supertypes peuvent s'y trouver
+		while (!pending.isEmpty()) {
+			String jar = pending.poll();
+			if (kept.add(jar))
+				pending.addAll(jars.getOrDefault(jar, new HashSet<>()));
+		}
+
+		jarIndex.save();
+
+		entries = new ArrayList<>(jdkClasspath.getEntries(referencedPackages));
+		for (String jar : jars.keySet())
+			if (kept.contains(jar))
+				entries.add(jar);
+
+		return entries;
+	}
+
+	private static boolean isReferenced(String entry, Set<String> referencedPackages, JarIndex index)
+			throws IOException {
+		File file = new File(entry);
+
+		if (file.isDirectory())
+			return true;
+
+		if (!file.isFile())
+			return false;
+
+		for (String packageName : index.getPackages(file))
+			if (referencedPackages.contains(packageName))
+				return true;
+
+		return false;
+	}
+
+	// Paquetages référencés par les sources du projet. Un import peut désigner un type
+	// imbriqué ou un membre statique : tous ses préfixes sont donc retenus. L'en-tête de
+	// chaque fichier (jusqu'à la première déclaration de type) donne le paquetage et les
+	// imports, le reste du fichier les noms qualifiés.
+	private Set<String> getReferencedPackages() throws IOException {
+		Set<String> packages = new HashSet<>();
+		packages.add("java.lang");
+
+		for (SourceFile sourceFile : new SourceDiscovery(projectPath).discover()) {
+			try (BufferedReader reader = Files.newBufferedReader(sourceFile.getPath(), StandardCharsets.ISO_8859_1)) {
+				String line;
+
+				while ((line = reader.readLine()) != null && !TYPE_DECLARATION.matcher(line).find()) {
+					Matcher packageMatcher = PACKAGE.matcher(line);
+					if (packageMatcher.find())
+						packages.add(packageMatcher.group(1));
+
+					Matcher matcher = IMPORT.matcher(line);
+					if (!matcher.find())
+						continue;
+
+					String name = matcher.group(1);
+					for (int dot = name.indexOf('.'); dot > 0; dot = name.indexOf('.', dot + 1))
+						packages.add(name.substring(0, dot));
+					packages.add(name);
+				}
+
+				for (; line != null; line = reader.readLine()) {
+					if (line.indexOf('.') < 0)
+						continue;
+
+					Matcher matcher = QUALIFIED_NAME.matcher(line);
+					while (matcher.find())
+						packages.add(matcher.group(1));
+				}
+			}
+		}
+
+		return packages;
+	}
+
+	// Toutes les entrées avant filtrage : dépendances du pom, puis entrées explicites
+	private Map<String, Set<String>> getDependencyJars() throws IOException {
+		if (dependencyJars != null)
+			return dependencyJars;
+
+		dependencyJars = new LinkedHashMap<>();
+		File buildFile = useBuildFile ? findBuildFile() : null;
+
+		if (buildFile != null)
+			resolveDependencies(buildFile);
+
+		for (String entry : explicitEntries)
+			dependencyJars.putIfAbsent(entry, new HashSet<>());
+
+		return dependencyJars;
+	}
+
+	private void resolveDependencies(File buildFile) throws IOException {
+		Pom root = loadPom(buildFile);
+		if (root == null)
+			return;
+
+		Map<String, String> resolvedJars = new HashMap<>();
+		Deque<Resolution> pending = new ArrayDeque<>();
+
+		for (Dependency dependency : root.dependencies)
+			if (ROOT_SCOPES.contains(root.getScope(dependency)))
+				pending.add(new Resolution(dependency, new HashSet<>(), null, null));
+
+		while (!pending.isEmpty()) {
+			Resolution resolution = pending.poll();
+			Dependency dependency = resolution.dependency;
+			String version = root.getVersion(dependency, resolution.declaringPom);
+
+			// La version la plus proche de la racine l'emporte
+			if (resolvedJars.containsKey(dependency.getKey()) || version == null)
+				continue;
+
+			File jar = "system".equals(root.getScope(dependency)) && dependency.systemPath != null
+					? new File(dependency.systemPath) : getArtifact(dependency, version, "jar");
+			String jarPath = jar != null && jar.isFile() ? jar.getAbsolutePath() : null;
+			resolvedJars.put(dependency.getKey(), jarPath);
+
+			if (jarPath != null) {
+				dependencyJars.putIfAbsent(jarPath, new HashSet<>());
+				if (resolution.parentJar != null)
+					dependencyJars.get(resolution.parentJar).add(jarPath);
+			}
+
+			Pom pom = loadPom(getArtifact(dependency, version, "pom"));
+			if (pom == null)
+				continue;
+
+			for (Dependency transitive : pom.dependencies) {
+				if (transitive.optional || resolution.exclusions.contains(transitive.groupId + ":" + transitive.artifactId)
+						|| resolution.exclusions.contains(transitive.groupId + ":*")
+						|| !TRANSITIVE_SCOPES.contains(pom.getScope(transitive)))
+					continue;
+
+				Set<String> exclusions = new HashSet<>(resolution.exclusions);
+				exclusions.addAll(transitive.exclusions);
+				pending.add(new Resolution(transitive, exclusions, pom, jarPath != null ? jarPath : resolution.parentJar));
+			}
+		}
+	}
+
+	private File getArtifact(Dependency dependency, String version, String extension) {
+		if (dependency.groupId == null || dependency.artifactId == null)
+			return null;
+
+		String name = dependency.artifactId + "-" + version;
+		if ("jar".equals(extension) && dependency.classifier != null)
+			name += "-" + dependency.classifier;
+
+		return new File(localRepository, dependency.groupId.replace('.', '/') + "/"
+				+ dependency.artifactId + "/" + version + "/" + name + "." + extension);
+	}
+
+	// Modèle effectif d'un pom : propriétés et gestion des dépendances héritées du parent,
+	// BOM importés, puis interpolation des ${...}
+	private Pom loadPom(File file) throws IOException {
+		if (file == null || !file.isFile())
+			return null;
+
+		String path = file.getCanonicalPath();
+		if (poms.containsKey(path))
+			return poms.get(path);
+
+		// Protège contre les cycles de parents ou d'imports
+		poms.put(path, null);
+		Element project = parseXml(file);
+		if (project == null)
+			return null;
+
+		Pom pom = new Pom();
+		Element parentElement = child(project, "parent");
+		Pom parent = null;
+
+		if (parentElement != null) {
+			Dependency parentCoordinates = readDependency(parentElement);
+			String relativePath = text(parentElement, "relativePath");
+			File localParent = new File(file.getParentFile(), relativePath != null ? relativePath : "../pom.xml");
+			if (localParent.isDirectory())
+				localParent = new File(localParent, "pom.xml");
+
+			parent = loadPom(localParent);
+			if (parent == null || parent.artifactId == null || !parent.artifactId.equals(parentCoordinates.artifactId))
+				parent = loadPom(getArtifact(parentCoordinates, parentCoordinates.version, "pom"));
+
+			if (parent != null) {
+				pom.properties.putAll(parent.properties);
+				pom.managedDependencies.putAll(parent.managedDependencies);
+			}
+
+			pom.groupId = parentCoordinates.groupId;
+			pom.version = parentCoordinates.version;
+			pom.properties.put("project.parent.groupId", parentCoordinates.groupId);
+			pom.properties.put("project.parent.version", parentCoordinates.version);
+		}
+
+		if (text(project, "groupId") != null)
+			pom.groupId = text(project, "groupId");
+		if (text(project, "version") != null)
+			pom.version = text(project, "version");
+		pom.artifactId = text(project, "artifactId");
+
+		Element properties = child(project, "properties");
+		if (properties != null)
+			for (Element property : children(properties))
+				pom.properties.put(property.getTagName(), property.getTextContent().trim());
+
+		pom.properties.put("project.groupId", pom.groupId);
+		pom.properties.put("project.artifactId", pom.artifactId);
+		pom.properties.put("project.version", pom.version);
+		pom.properties.put("pom.groupId", pom.groupId);
+		pom.properties.put("pom.version", pom.version);
+
+		Element management = child(project, "dependencyManagement");
+		if (management != null && child(management, "dependencies") != null) {
+			for (Element element : children(child(management, "dependencies"))) {
+				Dependency dependency = pom.interpolate(readDependency(element));
+
+				if ("import".equals(dependency.scope) && "pom".equals(dependency.type)) {
+					Pom bom = loadPom(getArtifact(dependency, dependency.version, "pom"));
+					if (bom != null)
+						for (Map.Entry<String, Dependency> entry : bom.managedDependencies.entrySet())
+							pom.managedDependencies.putIfAbsent(entry.getKey(), entry.getValue());
+				} else {
+					pom.managedDependencies.put(dependency.getKey(), dependency);
+				}
+			}
+		}
+
+		if (parent != null)
+			pom.dependencies.addAll(parent.dependencies);
+
+		if (child(project, "dependencies") != null)
+			for (Element element : children(child(project, "dependencies")))
+				pom.dependencies.add(pom.interpolate(readDependency(element)));
+
+		poms.put(path, pom);
+		return pom;
+	}
+
+	private static Element parseXml(File file) throws IOException {
+		try {
+			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+			factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+			factory.setExpandEntityReferences(false);
+			DocumentBuilder builder = factory.newDocumentBuilder();
+			Document document = builder.parse(file);
+
+			return document.getDocumentElement();
+		} catch (ParserConfigurationException | SAXException e) {
+			// pom invalide : l'artefact est traité comme s'il n'avait pas de dépendances
+			return null;
+		}
+	}
+
+	private static Dependency readDependency(Element element) {
+		Dependency dependency = new Dependency();
+		dependency.groupId = text(element, "groupId");
+		dependency.artifactId = text(element, "artifactId");
+		dependency.version = text(element, "version");
+		dependency.type = text(element, "type") != null ? text(element, "type") : "jar";
+		dependency.classifier = text(element, "classifier");
+		dependency.scope = text(element, "scope");
+		dependency.systemPath = text(element, "systemPath");
+		dependency.optional = "true".equals(text(element, "optional"));
+
+		Element exclusions = child(element, "exclusions");
+		if (exclusions != null)
+			for (Element exclusion : children(exclusions))
+				dependency.exclusions.add(text(exclusion, "groupId") + ":" + text(exclusion, "artifactId"));
+
+		return dependency;
+	}
+
+	private static List<Element> children(Element element) {
+		List<Element> children = new ArrayList<>();
+		NodeList nodes = element.getChildNodes();
+
+		for (int i = 0; i < nodes.getLength(); i++)
+			if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE)
+				children.add((Element) nodes.item(i));
+
+		return children;
+	}
+
+	private static Element child(Element element, String name) {
+		for (Element child : children(element))
+			if (child.getTagName().equals(name))
+				return child;
+
+		return null;
+	}
+
+	private static String text(Element element, String name) {
+		Element child = child(element, name);
+		return child != null ? child.getTextContent().trim() : null;
+	}
+
+	private static class Dependency {
+		String groupId;
+		String artifactId;
+		String version;
+		String type;
+		String classifier;
+		String scope;
+		String systemPath;
+		boolean optional;
+		Set<String> exclusions = new TreeSet<>();
+
+		public String getKey() {
+			return groupId + ":" + artifactId + ":" + type + (classifier != null ? ":" + classifier : "");
+		}
+	}
+
+	private static class Pom {
+		String groupId;
+		String artifactId;
+		String version;
+		Map<String, String> properties = new HashMap<>();
+		Map<String, Dependency> managedDependencies = new HashMap<>();
+		List<Dependency> dependencies = new ArrayList<>();
+
+		// Une version déclarée par la racine prime ; sinon la gestion des dépendances de la
+		// racine s'applique, y compris aux dépendances transitives
+		public String getVersion(Dependency dependency, Pom declaringPom) {
+			if (declaringPom == null && dependency.version != null)
+				return dependency.version;
+
+			Dependency managed = managedDependencies.get(dependency.getKey());
+			if (managed != null && managed.version != null)
+				return managed.version;
+
+			if (dependency.version != null)
+				return dependency.version;
+
+			if (declaringPom != null) {
+				managed = declaringPom.managedDependencies.get(dependency.getKey());
+				if (managed != null)
+					return managed.version;
+			}
+
+			return null;
+		}
+
+		public String getScope(Dependency dependency) {
+			if (dependency.scope != null)
+				return dependency.scope;
+
+			Dependency managed = managedDependencies.get(dependency.getKey());
+			return managed != null && managed.scope != null ? managed.scope : "compile";
+		}
+
+		public Dependency interpolate(Dependency dependency) {
+			dependency.groupId = interpolate(dependency.groupId);
+			dependency.artifactId = interpolate(dependency.artifactId);
+			dependency.version = interpolate(dependency.version);
+			dependency.classifier = interpolate(dependency.classifier);
+			dependency.systemPath = interpolate(dependency.systemPath);
+			return dependency;
+		}
+
+		private String interpolate(String value) {
+			// Les propriétés peuvent en référencer d'autres : on itère, avec une limite
+			for (int pass = 0; value != null && value.contains("${") && pass < 10; pass++) {
+				Matcher matcher = PROPERTY.matcher(value);
+				StringBuffer result = new StringBuffer();
+
+				while (matcher.find()) {
+					String property = properties.get(matcher.group(1));
+					if (property == null)
+						property = System.getProperty(matcher.group(1), matcher.group());
+					matcher.appendReplacement(result, Matcher.quoteReplacement(property));
+				}
+				matcher.appendTail(result);
+
+				if (result.toString().equals(value))
+					break;
+				value = result.toString();
+			}
+
+			return value;
+		}
+	}
+
+	private static class Resolution {
+		Dependency dependency;
+		Set<String> exclusions;
+		Pom declaringPom;
+		String parentJar;
+
+		public Resolution(Dependency dependency, Set<String> exclusions, Pom declaringPom, String parentJar) {
+			this.dependency = dependency;
+			this.exclusions = exclusions;
+			this.declaringPom = declaringPom;
+			this.parentJar = parentJar;
+		}
+	}
+}
@@ -4,15 +4,34 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.io.FileUtils;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 
 public class EclipseJDTASTParser extends Parser<ASTParser>{
+	/* ATTRIBUTES */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+	// Niveau le plus récent reconnu par AST.JLS4 ; sans lui, JDT analyse en Java 1.3
+	// (enum n'est alors qu'un identifiant)
+	public static final String SOURCE_LEVEL = JavaCore.VERSION_1_7;
+	
+	private static Map<String, String> compilerOptions;
+	
+	protected String encoding;
+	protected String settings;
+	// Sans bindings (mode rapide), les receveurs sont résolus par CallGraph via un index.
+	// Faux par défaut : configure() est appelé par le constructeur parent, avant toute
+	// initialisation des champs de cette classe
+	protected boolean withoutBindings;
+	// Classpath de résolution des bindings (cf. ClasspathResolver) ; à défaut, le seul JRE
+	protected List<String> classpath;
+	protected String classpathKey;
 	
 	/* CONSTRUCTOR */
 	public EclipseJDTASTParser(String projectPath) {
@@ -22,20 +41,72 @@ public class EclipseJDTASTParser extends Parser<ASTParser>{
 	/* METHODS */
 	public void setParser(int level, int kind, boolean resolveBindings, 
 			boolean bindingsRecovery, String encoding) {
+		this.encoding = encoding;
+		this.settings = "level=" + level + ";kind=" + kind + ";bindings=" + resolveBindings
+				+ ";recovery=" + bindingsRecovery + ";source=" + SOURCE_LEVEL + ";encoding=" + encoding
+				+ ";jre=" + getJREPath() + (classpathKey != null ? ";classpath=" + classpathKey : "");
 		parser = ASTParser.newParser(level);
 		parser.setKind(kind);
 		parser.setResolveBindings(resolveBindings);
 		parser.setBindingsRecovery(bindingsRecovery);
-		parser.setCompilerOptions(JavaCore.getOptions());
+		parser.setCompilerOptions(getCompilerOptions());
 		parser.setUnitName("");
-		parser.setEnvironment(new String[] {getJREPath()}, 
+		parser.setEnvironment(classpath != null ? classpath.toArray(new String[0]) : new String[] {getJREPath()}, 
 				new String[] {getProjectPath()}, 
 				new String[] {encoding}, true);
 	}
 	
+	// JavaCore.getOptions() copie toutes les options du modèle : on ne le fait qu'une fois,
+	// configure() étant appelé avant chaque fichier par parse(File)
+	private static synchronized Map<String, String> getCompilerOptions() {
+		if (compilerOptions == null) {
+			// JDT 3.9 rend une Hashtable brute, dont les clés et valeurs sont des String
+			@SuppressWarnings("unchecked")
+			Map<String, String> options = JavaCore.getOptions();
+			JavaCore.setComplianceOptions(SOURCE_LEVEL, options);
+			compilerOptions = options;
+		}
+		
+		return compilerOptions;
+	}
+	
+	public boolean isResolvingBindings() {
+		return !withoutBindings;
+	}
+	
+	public void setResolveBindings(boolean resolveBindings) {
+		this.withoutBindings = !resolveBindings;
+		configure();
+	}
+	
+	public List<String> getClasspath() {
+		return classpath;
+	}
+	
+	public void setClasspath(List<String> classpath) {
+		this.classpath = classpath;
+		configure();
+	}
+	
+	// Empreinte du classpath, reportée dans les réglages pour invalider le cache des faits
+	public void setClasspathKey(String classpathKey) {
+		this.classpathKey = classpathKey;
+		configure();
+	}
+	
+	public String getEncoding() {
+		return encoding;
+	}
+	
+	// Résumé des réglages qui influencent le résultat de l'analyse (cf. FactCache)
+	public String getSettings() {
+		return settings;
+	}
+	
 	public CompilationUnit parse(File sourceFile) throws IOException {
-		Charset platformCharset = null;
-		parser.setSource(FileUtils.readFileToString(sourceFile, platformCharset).toCharArray());
+		// createAST() remet le parseur dans son état initial : on le reconfigure à chaque fichier
+		configure();
+		parser.setSource(SourceReader.forCurrentThread(Charset.forName(encoding)).read(sourceFile));
 		
 		return (CompilationUnit) parser.createAST(null);
 	}
@@ -49,10 +120,46 @@ public class EclipseJDTASTParser extends Parser<ASTParser>{
 		
 		return cUnits;
 	}
+	
+	// Analyse tout le projet en un seul appel à createASTs : l'environnement de
+	// résolution des bindings est partagé et chaque unité est transmise au requestor
+	// dès qu'elle est prête
+	public void parseProject(FileASTRequestor requestor) {
+		parseProject(requestor, Integer.MAX_VALUE);
+	}
+	
+	// Même chose par lots de batchSize fichiers : l'environnement de bindings d'un lot
+	// est libéré avant le suivant, ce qui borne la mémoire par la taille d'un lot
+	public void parseProject(FileASTRequestor requestor, int batchSize) {
+		List<File> sourceFiles = listJavaProjectFiles();
+		int size = Math.max(1, batchSize);
+		
+		for (int start = 0; start < sourceFiles.size(); start += size) {
+			int end = (int) Math.min((long) start + size, sourceFiles.size());
+			String[] sourcePaths = new String[end - start];
+			
+			for (int i = start; i < end; i++)
+				sourcePaths[i - start] = sourceFiles.get(i).getAbsolutePath();
+			
+			parseFiles(sourcePaths, requestor);
+		}
+	}
+	
+	public void parseFiles(String[] sourcePaths, FileASTRequestor requestor) {
+		String[] encodings = new String[sourcePaths.length];
+		Arrays.fill(encodings, encoding);
+		
+		if (requestor instanceof BatchASTRequestor)
+			((BatchASTRequestor) requestor).beginBatch(sourcePaths);
+		
+		configure();
+		parser.createASTs(sourcePaths, encodings, new String[0], requestor, null);
+		configure();
+	}
 
 
 	@Override
 	public void configure() {
-		setParser(AST.JLS4, ASTParser.K_COMPILATION_UNIT, true, true, "UTF-8");
+		setParser(AST.JLS4, ASTParser.K_COMPILATION_UNIT, !withoutBindings, !withoutBindings, "UTF-8");
 	}
 }
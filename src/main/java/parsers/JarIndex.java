@@ -0,0 +1,174 @@
+package parsers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+// Cache disque des paquetages contenus dans chaque jar, indexé par chemin. La taille et la
+// date de modification d'un jar suffisent à savoir si son entrée est encore valable : les
+// analyses suivantes n'ouvrent plus que les jars nouveaux ou modifiés.
+//
+// Le fichier est partagé par toutes les analyses, y compris celles qui tournent en parallèle
+// (cf. BatchCLI) : save() relit l'index sous verrou et y ajoute ses entrées, plutôt que de
+// remplacer celles que d'autres analyses ont enregistrées depuis load().
+public class JarIndex {
+	/* ATTRIBUTES */
+	private static final int FORMAT_VERSION = 1;
+	// Un FileLock est tenu par le processus : les threads d'un même processus s'excluent ici
+	private static final Object SAVE_LOCK = new Object();
+	
+	private File indexFile;
+	private Map<String, Entry> entries = new HashMap<>();
+	private boolean modified;
+	
+	/* CONSTRUCTOR */
+	public JarIndex(File indexFile) {
+		this.indexFile = indexFile;
+	}
+	
+	/* METHODS */
+	public static JarIndex getDefault() {
+		return new JarIndex(new File(System.getProperty("user.home"), ".hai913/jars.index"));
+	}
+	
+	public synchronized Set<String> getPackages(File jar) throws IOException {
+		String path = jar.getAbsolutePath();
+		Entry entry = entries.get(path);
+		
+		if (entry == null || entry.size != jar.length() || entry.lastModified != jar.lastModified()) {
+			entry = new Entry(jar.length(), jar.lastModified(), scan(jar));
+			entries.put(path, entry);
+			modified = true;
+		}
+		
+		return entry.packages;
+	}
+	
+	private static Set<String> scan(File jar) throws IOException {
+		Set<String> packages = new TreeSet<>();
+		
+		try (ZipFile zip = new ZipFile(jar)) {
+			Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+			
+			while (zipEntries.hasMoreElements()) {
+				String name = zipEntries.nextElement().getName();
+				int slash = name.lastIndexOf('/');
+				
+				// Les classes versionnées (META-INF/versions/n/...) sont ignorées
+				if (name.endsWith(".class") && slash > 0 && !name.startsWith("META-INF/"))
+					packages.add(name.substring(0, slash).replace('/', '.'));
+			}
+		}
+		
+		return packages;
+	}
+	
+	public synchronized void load() throws IOException {
+		entries = read(indexFile);
+	}
+	
+	private static Map<String, Entry> read(File indexFile) {
+		Map<String, Entry> entries = new HashMap<>();
+		
+		if (!indexFile.isFile())
+			return entries;
+		
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(indexFile)))) {
+			
+			if (in.readInt() != FORMAT_VERSION)
+				return entries;
+			
+			int nbEntries = in.readInt();
+			for (int i = 0; i < nbEntries; i++) {
+				String path = in.readUTF();
+				long size = in.readLong();
+				long lastModified = in.readLong();
+				Set<String> packages = new TreeSet<>();
+				
+				int nbPackages = in.readInt();
+				for (int j = 0; j < nbPackages; j++)
+					packages.add(in.readUTF());
+				
+				entries.put(path, new Entry(size, lastModified, packages));
+			}
+		} catch (IOException e) {
+			// Index tronqué ou corrompu : les jars seront relus
+			entries.clear();
+		}
+		
+		return entries;
+	}
+	
+	public synchronized void save() throws IOException {
+		if (!modified)
+			return;
+		
+		indexFile.getParentFile().mkdirs();
+		File lockFile = new File(indexFile.getParentFile(), indexFile.getName() + ".lock");
+		
+		synchronized (SAVE_LOCK) {
+			try (FileChannel channel = FileChannel.open(lockFile.toPath(),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				channel.lock(); // libéré à la fermeture du canal
+				
+				// Entrées enregistrées entre-temps par d'autres analyses ; les nôtres l'emportent
+				Map<String, Entry> merged = read(indexFile);
+				merged.putAll(entries);
+				entries = merged;
+				write();
+			}
+		}
+		
+		modified = false;
+	}
+	
+	private void write() throws IOException {
+		File tmpFile = File.createTempFile("jars", ".tmp", indexFile.getParentFile());
+		
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(entries.size());
+			
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeLong(entry.getValue().size);
+				out.writeLong(entry.getValue().lastModified);
+				out.writeInt(entry.getValue().packages.size());
+				for (String packageName : entry.getValue().packages)
+					out.writeUTF(packageName);
+			}
+		}
+		
+		Files.move(tmpFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	private static class Entry {
+		long size;
+		long lastModified;
+		Set<String> packages;
+		
+		public Entry(long size, long lastModified, Set<String> packages) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.packages = packages;
+		}
+	}
+}
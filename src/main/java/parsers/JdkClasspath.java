@@ -0,0 +1,292 @@
+package parsers;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+// Classes du JDK à fournir à JDT. Jusqu'au JDK 8, c'est lib/rt.jar. Depuis le JDK 9, les
+// classes sont dans l'image jrt:/, que JDT 3.9 ne sait pas lire : chaque module utile est
+// recopié une fois pour toutes dans un jar, sous ~/.hai913/jdk/<version>/. Seuls java.base
+// et les modules des paquetages référencés (avec leurs dépendances) sont retenus.
+//
+// JDT 3.9 lit mal un @Deprecated qui a des valeurs (since, forRemoval, depuis le JDK 9) :
+// il n'en saute pas les valeurs et, si une autre annotation suit, rejette toute la classe
+// (ClassFormatException). C'est le cas de java.lang.System (setSecurityManager), dont
+// aucun appel ne serait alors résolu. Lors de la copie, ce @Deprecated est donc placé en
+// dernier parmi les annotations de son élément ; le contenu des classes est inchangé.
+public class JdkClasspath {
+	/* ATTRIBUTES */
+	// Version des jars copiés : à incrémenter quand la copie change (cf. ClasspathResolver.getKey)
+	public static final int FORMAT_VERSION = 2;
+	private static final String BASE_MODULE = "java.base";
+	private static final String DEPRECATED = "Ljava/lang/Deprecated;";
+	
+	private File javaHome;
+	private File cacheDirectory;
+	
+	/* CONSTRUCTOR */
+	public JdkClasspath() {
+		this(new File(System.getProperty("java.home")), new File(System.getProperty("user.home"), 
+				".hai913/jdk/" + System.getProperty("java.version")));
+	}
+	
+	public JdkClasspath(File javaHome, File cacheDirectory) {
+		this.javaHome = javaHome;
+		this.cacheDirectory = cacheDirectory;
+	}
+	
+	/* METHODS */
+	public List<String> getEntries(Collection<String> referencedPackages) throws IOException {
+		List<String> entries = new ArrayList<>();
+		File runtimeJar = new File(javaHome, "lib/rt.jar");
+		
+		if (runtimeJar.isFile()) {
+			entries.add(runtimeJar.getAbsolutePath());
+			return entries;
+		}
+		
+		for (String module : getModules(referencedPackages))
+			entries.add(getModuleJar(module).getAbsolutePath());
+		
+		return entries;
+	}
+	
+	// java.base, les modules qui exportent un paquetage référencé, puis leurs dépendances
+	private static Set<String> getModules(Collection<String> referencedPackages) {
+		Map<String, ModuleDescriptor> descriptors = new HashMap<>();
+		Map<String, String> packageModules = new HashMap<>();
+		
+		for (ModuleReference reference : ModuleFinder.ofSystem().findAll()) {
+			ModuleDescriptor descriptor = reference.descriptor();
+			descriptors.put(descriptor.name(), descriptor);
+			for (ModuleDescriptor.Exports exports : descriptor.exports())
+				if (!exports.isQualified())
+					packageModules.put(exports.source(), descriptor.name());
+		}
+		
+		Set<String> modules = new TreeSet<>();
+		Deque<String> pending = new ArrayDeque<>();
+		pending.add(BASE_MODULE);
+		for (String packageName : referencedPackages)
+			if (packageModules.containsKey(packageName))
+				pending.add(packageModules.get(packageName));
+		
+		while (!pending.isEmpty()) {
+			String module = pending.poll();
+			if (!modules.add(module))
+				continue;
+			
+			for (ModuleDescriptor.Requires requires : descriptors.get(module).requires())
+				if (!requires.modifiers().contains(ModuleDescriptor.Requires.Modifier.STATIC))
+					pending.add(requires.name());
+		}
+		
+		return modules;
+	}
+	
+	private File getModuleJar(String module) throws IOException {
+		File jar = new File(cacheDirectory, module + "-" + FORMAT_VERSION + ".jar");
+		if (jar.isFile())
+			return jar;
+		
+		cacheDirectory.mkdirs();
+		File tmpFile = File.createTempFile(module, ".tmp", cacheDirectory);
+		FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+		Path root = jrt.getPath("/modules", module);
+		
+		try (JarOutputStream out = new JarOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+				Stream<Path> files = Files.walk(root)) {
+			out.setLevel(1);
+			
+			files.filter(path -> path.toString().endsWith(".class") 
+					&& !path.getFileName().toString().equals("module-info.class"))
+				.forEach(path -> {
+					try {
+						out.putNextEntry(new JarEntry(root.relativize(path).toString()));
+						out.write(moveDeprecatedLast(Files.readAllBytes(path)));
+						out.closeEntry();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+		} catch (UncheckedIOException e) {
+			tmpFile.delete();
+			throw e.getCause();
+		}
+		
+		Files.move(tmpFile.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		return jar;
+	}
+	
+	// Réécrit les attributs d'annotations des membres et de la classe ; les autres octets du
+	// fichier .class sont recopiés tels quels
+	static byte[] moveDeprecatedLast(byte[] classFile) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length);
+		DataOutputStream out = new DataOutputStream(bytes);
+		
+		copy(in, out, 8); // magic, versions
+		int constants = in.readUnsignedShort();
+		out.writeShort(constants);
+		String[] utf8 = new String[constants];
+		
+		for (int i = 1; i < constants; i++) {
+			int tag = in.readUnsignedByte();
+			out.writeByte(tag);
+			
+			switch (tag) {
+				case 1:
+					int length = in.readUnsignedShort();
+					byte[] value = new byte[length];
+					in.readFully(value);
+					out.writeShort(length);
+					out.write(value);
+					// Les noms utiles (attributs, types d'annotations) sont en ASCII
+					utf8[i] = new String(value, StandardCharsets.ISO_8859_1);
+					break;
+				case 5: case 6: // long, double : deux entrées
+					copy(in, out, 8);
+					i++;
+					break;
+				case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+					copy(in, out, 4);
+					break;
+				case 15:
+					copy(in, out, 3);
+					break;
+				case 7: case 8: case 16: case 19: case 20:
+					copy(in, out, 2);
+					break;
+				default:
+					throw new IOException("constante inconnue : " + tag);
+			}
+		}
+		
+		copy(in, out, 6); // accès, classe, superclasse
+		int interfaces = in.readUnsignedShort();
+		out.writeShort(interfaces);
+		copy(in, out, 2 * interfaces);
+		
+		// Champs puis méthodes
+		for (int kind = 0; kind < 2; kind++) {
+			int members = in.readUnsignedShort();
+			out.writeShort(members);
+			for (int member = 0; member < members; member++) {
+				copy(in, out, 6);
+				copyAttributes(in, out, utf8);
+			}
+		}
+		copyAttributes(in, out, utf8);
+		
+		return bytes.toByteArray();
+	}
+	
+	private static void copyAttributes(DataInputStream in, DataOutputStream out, String[] utf8) throws IOException {
+		int attributes = in.readUnsignedShort();
+		out.writeShort(attributes);
+		
+		for (int i = 0; i < attributes; i++) {
+			int name = in.readUnsignedShort();
+			byte[] value = new byte[in.readInt()];
+			in.readFully(value);
+			
+			if ("RuntimeVisibleAnnotations".equals(utf8[name]) || "RuntimeInvisibleAnnotations".equals(utf8[name]))
+				value = moveDeprecatedLast(value, utf8);
+			
+			out.writeShort(name);
+			out.writeInt(value.length);
+			out.write(value);
+		}
+	}
+	
+	// Attribut num_annotations, annotations[] : même longueur, seul l'ordre peut changer
+	private static byte[] moveDeprecatedLast(byte[] attribute, String[] utf8) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(attribute));
+		int annotations = in.readUnsignedShort();
+		int[] starts = new int[annotations + 1];
+		int deprecated = -1;
+		
+		for (int i = 0; i < annotations; i++) {
+			starts[i] = attribute.length - in.available();
+			int type = in.readUnsignedShort();
+			int pairs = in.readUnsignedShort();
+			if (DEPRECATED.equals(utf8[type]) && pairs > 0)
+				deprecated = i;
+			
+			for (int pair = 0; pair < pairs; pair++) {
+				in.readUnsignedShort();
+				skipElementValue(in);
+			}
+		}
+		starts[annotations] = attribute.length - in.available();
+		
+		if (deprecated < 0 || deprecated == annotations - 1)
+			return attribute;
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream(attribute.length);
+		out.write(attribute, 0, starts[deprecated]);
+		out.write(attribute, starts[deprecated + 1], starts[annotations] - starts[deprecated + 1]);
+		out.write(attribute, starts[deprecated], starts[deprecated + 1] - starts[deprecated]);
+		out.write(attribute, starts[annotations], attribute.length - starts[annotations]);
+		return out.toByteArray();
+	}
+	
+	private static void skipElementValue(DataInputStream in) throws IOException {
+		int tag = in.readUnsignedByte();
+		
+		switch (tag) {
+			case 'e': // type, constante
+				in.readInt();
+				break;
+			case '@':
+				in.readUnsignedShort();
+				int pairs = in.readUnsignedShort();
+				for (int pair = 0; pair < pairs; pair++) {
+					in.readUnsignedShort();
+					skipElementValue(in);
+				}
+				break;
+			case '[':
+				int values = in.readUnsignedShort();
+				for (int i = 0; i < values; i++)
+					skipElementValue(in);
+				break;
+			default: // constante ou classe
+				in.readUnsignedShort();
+		}
+	}
+	
+	private static void copy(DataInputStream in, DataOutputStream out, int length) throws IOException {
+		byte[] buffer = new byte[length];
+		in.readFully(buffer);
+		out.write(buffer);
+	}
+}
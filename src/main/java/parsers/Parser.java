@@ -1,6 +1,8 @@
 package parsers;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -9,6 +11,7 @@ public abstract class Parser<T> {
 	protected String projectPath;
 	protected String jrePath;
 	protected T parser;
+	protected SourceDiscovery sourceDiscovery;
 	
 	/* CONSTRUCTOR */
 	public Parser(String projectPath) {
@@ -24,6 +27,7 @@ public abstract class Parser<T> {
 	
 	public void setProjectPath(String projectPath) {
 		this.projectPath = projectPath;
+		this.sourceDiscovery = null;
 	}
 	
 	public String getJREPath() {
@@ -38,39 +42,49 @@ public abstract class Parser<T> {
 		return parser;
 	}
 	
-	public List<File> listJavaFiles(String filePath){
-		File folder = new File(filePath);
-		List<File> javaFiles = new ArrayList<>();
-		String fileName = "";
+	public SourceDiscovery getSourceDiscovery() {
+		if (sourceDiscovery == null)
+			sourceDiscovery = new SourceDiscovery(getProjectPath());
 		
-		for (File file: folder.listFiles()) {
-			fileName = file.getName();
-			
-			if (file.isDirectory())
-				javaFiles.addAll(listJavaFiles(file.getAbsolutePath()));
-			else if (fileName.endsWith(".java"))
-				javaFiles.add(file);
-		}
-		
-		return javaFiles;
+		return sourceDiscovery;
+	}
+	
+	public void setSourceDiscovery(SourceDiscovery sourceDiscovery) {
+		this.sourceDiscovery = sourceDiscovery;
+	}
+	
+	public List<File> listJavaFiles(String filePath){
+		return getJavaFilesForFolder(new File(filePath));
 	}
 
 	public ArrayList<File> getJavaFilesForFolder(File  folder) {
 		ArrayList<File> javaFiles = new ArrayList<File>();
-		for (File fileEntry : folder.listFiles()) {
-			if (fileEntry.isDirectory()) {
-				javaFiles.addAll(getJavaFilesForFolder(fileEntry));
-			} else if (fileEntry.getName().contains(".java")) {
-				javaFiles.add(fileEntry);
-			}
+		
+		try {
+			for (SourceFile sourceFile : new SourceDiscovery(folder.getPath()).discover())
+				javaFiles.add(sourceFile.toFile());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 
 		return javaFiles;
 	}
 	
+	public List<SourceFile> discoverJavaProjectFiles() throws IOException {
+		return getSourceDiscovery().discover();
+	}
+	
 	public List<File> listJavaProjectFiles(){
-		File file = new File(getProjectPath());
-		return getJavaFilesForFolder(file);
+		List<File> javaFiles = new ArrayList<>();
+		
+		try {
+			for (SourceFile sourceFile : discoverJavaProjectFiles())
+				javaFiles.add(sourceFile.toFile());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		return javaFiles;
 	}
 	
 	public abstract void configure();
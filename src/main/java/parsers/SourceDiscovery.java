@@ -0,0 +1,205 @@
+package parsers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Découverte des fichiers sources d'un projet. Chaque répertoire est listé par sa propre
+// tâche fork/join, ce qui parallélise les accès disque (utile sur les montages réseau).
+// Les motifs glob sont testés sur le chemin relatif à la racine et sur le nom du fichier :
+// "*.java" ou "target" s'appliquent à tous les niveaux, "src/gen/**" à un sous-arbre précis.
+// Un motif qui commence par "/" n'est testé que sur le chemin relatif : "/build" exclut le
+// répertoire build de la racine mais pas un paquetage com.example.build.
+public class SourceDiscovery {
+	/* ATTRIBUTES */
+	public static final List<String> DEFAULT_INCLUDES = Arrays.asList("*.java");
+	public static final List<String> DEFAULT_EXCLUDES = Arrays.asList(
+			".git", ".svn", ".idea", "target", "/build", "/out", "generated-sources");
+	
+	private Path root;
+	private List<PathMatcher> includes = new ArrayList<>();
+	private List<PathMatcher> excludes = new ArrayList<>();
+	private boolean followLinks = false;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	/* CONSTRUCTOR */
+	public SourceDiscovery(String root) {
+		this.root = Paths.get(root).toAbsolutePath().normalize();
+		setIncludes(DEFAULT_INCLUDES);
+		setExcludes(DEFAULT_EXCLUDES);
+	}
+	
+	/* METHODS */
+	public Path getRoot() {
+		return root;
+	}
+	
+	public void setIncludes(List<String> globs) {
+		includes = toMatchers(globs);
+	}
+	
+	public void setExcludes(List<String> globs) {
+		excludes = toMatchers(globs);
+	}
+	
+	public boolean isFollowLinks() {
+		return followLinks;
+	}
+	
+	public void setFollowLinks(boolean followLinks) {
+		this.followLinks = followLinks;
+	}
+	
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+	
+	private List<PathMatcher> toMatchers(List<String> globs) {
+		FileSystem fileSystem = root.getFileSystem();
+		List<PathMatcher> matchers = new ArrayList<>();
+		
+		for (String glob : globs) {
+			if (glob.startsWith("/")) {
+				matchers.add(fileSystem.getPathMatcher("glob:" + glob.substring(1)));
+			} else {
+				PathMatcher matcher = fileSystem.getPathMatcher("glob:" + glob);
+				matchers.add(path -> matcher.matches(path)
+						|| (path.getFileName() != null && matcher.matches(path.getFileName())));
+			}
+		}
+		
+		return matchers;
+	}
+	
+	private boolean matches(List<PathMatcher> matchers, Path relative) {
+		for (PathMatcher matcher : matchers)
+			if (matcher.matches(relative))
+				return true;
+		
+		return false;
+	}
+	
+	// Vrai pour un répertoire sous la racine que discover() parcourrait (cf. mode surveillance)
+	public boolean isIncludedDirectory(Path directory) {
+		Path relative = root.relativize(directory.toAbsolutePath().normalize());
+		
+		if (relative.startsWith(".."))
+			return false;
+		
+		for (int end = 1; end <= relative.getNameCount(); end++)
+			if (!relative.toString().isEmpty() && matches(excludes, relative.subpath(0, end)))
+				return false;
+		
+		return true;
+	}
+	
+	// Vrai pour un chemin que discover() retiendrait s'il existait : motifs d'inclusion et
+	// d'exclusion, répertoires exclus compris
+	public boolean isSourceFile(Path path) {
+		Path absolute = path.toAbsolutePath().normalize();
+		Path relative = root.relativize(absolute);
+		Path parent = absolute.getParent();
+		
+		return !relative.startsWith("..") && parent != null && isIncludedDirectory(parent)
+				&& matches(includes, relative) && !matches(excludes, relative);
+	}
+	
+	public List<SourceFile> discover() throws IOException {
+		ConcurrentLinkedQueue<SourceFile> sourceFiles = new ConcurrentLinkedQueue<>();
+		Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		
+		try {
+			if (followLinks)
+				visitedDirectories.add(Files.readAttributes(root, BasicFileAttributes.class).fileKey());
+			pool.invoke(new DirectoryTask(root, sourceFiles, visitedDirectories));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdown();
+		}
+		
+		List<SourceFile> sorted = new ArrayList<>(sourceFiles);
+		Collections.sort(sorted, Comparator.comparing(SourceFile::getPath));
+		return sorted;
+	}
+	
+	private class DirectoryTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private Path directory;
+		private ConcurrentLinkedQueue<SourceFile> sourceFiles;
+		private Set<Object> visitedDirectories;
+		
+		public DirectoryTask(Path directory, ConcurrentLinkedQueue<SourceFile> sourceFiles,
+				Set<Object> visitedDirectories) {
+			this.directory = directory;
+			this.sourceFiles = sourceFiles;
+			this.visitedDirectories = visitedDirectories;
+		}
+		
+		@Override
+		protected void compute() {
+			List<DirectoryTask> subTasks = new ArrayList<>();
+			LinkOption[] linkOptions = followLinks ? new LinkOption[0]
+					: new LinkOption[] {LinkOption.NOFOLLOW_LINKS};
+			
+			try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+				for (Path entry : entries) {
+					Path relative = root.relativize(entry);
+					BasicFileAttributes attributes;
+					
+					try {
+						attributes = Files.readAttributes(entry, BasicFileAttributes.class, linkOptions);
+					} catch (IOException e) {
+						continue; // lien cassé ou fichier supprimé pendant le parcours
+					}
+					
+					if (attributes.isDirectory()) {
+						if (matches(excludes, relative))
+							continue;
+						// Avec followLinks, un répertoire déjà visité signale une boucle de liens
+						if (followLinks) {
+							Object key;
+							try {
+								key = attributes.fileKey() != null ? attributes.fileKey()
+										: entry.toRealPath();
+							} catch (IOException e) {
+								continue; // répertoire supprimé ou illisible pendant le parcours
+							}
+							if (!visitedDirectories.add(key))
+								continue;
+						}
+						
+						subTasks.add(new DirectoryTask(entry, sourceFiles, visitedDirectories));
+					} else if (attributes.isRegularFile()
+							&& matches(includes, relative) && !matches(excludes, relative)) {
+						sourceFiles.add(new SourceFile(entry, attributes.size(),
+								attributes.lastModifiedTime().toMillis()));
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			
+			invokeAll(subTasks);
+		}
+	}
+}
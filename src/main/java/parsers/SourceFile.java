@@ -0,0 +1,40 @@
+package parsers;
+
+import java.io.File;
+import java.nio.file.Path;
+
+public class SourceFile {
+	/* ATTRIBUTES */
+	private Path path;
+	private long size;
+	private long lastModified;
+	
+	/* CONSTRUCTOR */
+	public SourceFile(Path path, long size, long lastModified) {
+		this.path = path;
+		this.size = size;
+		this.lastModified = lastModified;
+	}
+	
+	/* METHODS */
+	public Path getPath() {
+		return path;
+	}
+	
+	public File toFile() {
+		return path.toFile();
+	}
+	
+	public long getSize() {
+		return size;
+	}
+	
+	public long getLastModified() {
+		return lastModified;
+	}
+	
+	@Override
+	public String toString() {
+		return path + " (" + size + " bytes)";
+	}
+}
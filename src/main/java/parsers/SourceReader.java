@@ -0,0 +1,123 @@
+package parsers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.file.StandardOpenOption;
+
+// Lecture d'un fichier source en char[], dans un encodage explicite. Les octets sont lus
+// dans un tampon réutilisé puis décodés directement dans un tampon de caractères lui aussi
+// réutilisé : seul le tableau rendu, à la taille exacte du contenu, est alloué par fichier.
+// Au-delà de MAPPED_THRESHOLD octets, le fichier est projeté en mémoire plutôt que copié,
+// et décodé dans un tableau alloué pour lui, rendu tel quel s'il est rempli exactement
+// (contenu ASCII en UTF-8, par exemple) : les tampons de cette taille ne sont pas conservés.
+//
+// Une instance n'est utilisée que depuis un seul thread : cf. forCurrentThread.
+public class SourceReader {
+	/* ATTRIBUTES */
+	public static final int MAPPED_THRESHOLD = 1 << 20;
+	private static final int INITIAL_CAPACITY = 1 << 14;
+	private static final ThreadLocal<SourceReader> READERS = new ThreadLocal<>();
+
+	private Charset charset;
+	private CharsetDecoder decoder;
+	private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+	private CharBuffer chars = CharBuffer.allocate(INITIAL_CAPACITY);
+
+	/* CONSTRUCTOR */
+	public SourceReader(Charset charset) {
+		this.charset = charset;
+		// Comme InputStreamReader (et JDT) : les séquences invalides sont remplacées
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/* METHODS */
+	// Lecteur propre au thread courant, recréé si l'encodage demandé change
+	public static SourceReader forCurrentThread(Charset charset) {
+		SourceReader reader = READERS.get();
+
+		if (reader == null || !reader.charset.equals(charset)) {
+			reader = new SourceReader(charset);
+			READERS.set(reader);
+		}
+
+		return reader;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	public char[] read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("Fichier trop volumineux : " + file);
+
+			boolean large = size >= MAPPED_THRESHOLD;
+			ByteBuffer input;
+
+			if (large) {
+				input = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			} else {
+				input = getBytes((int) size);
+				while (input.hasRemaining() && channel.read(input) >= 0)
+					continue;
+				input.flip();
+			}
+
+			// maxCharsPerByte borne le nombre de caractères décodés, remplacements compris
+			int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(size * (double) decoder.maxCharsPerByte()));
+			CharBuffer output = large ? CharBuffer.wrap(new char[capacity]) : getChars(capacity + 1);
+			decode(input, output);
+
+			// Marque d'ordre des octets éventuelle, ignorée comme le fait JDT
+			if (output.hasRemaining() && output.get(0) == '\uFEFF')
+				output.position(1);
+
+			if (large && output.position() == 0 && output.limit() == capacity)
+				return output.array();
+
+			char[] source = new char[output.remaining()];
+			output.get(source);
+			return source;
+		}
+	}
+
+	private void decode(ByteBuffer input, CharBuffer output) throws CharacterCodingException {
+		decoder.reset();
+		CoderResult result = decoder.decode(input, output, true);
+		if (result.isUnderflow())
+			result = decoder.flush(output);
+		if (!result.isUnderflow())
+			result.throwException();
+
+		output.flip();
+	}
+
+	private ByteBuffer getBytes(int size) {
+		if (bytes.capacity() < size)
+			bytes = ByteBuffer.allocate(Math.max(size, 2 * bytes.capacity()));
+
+		bytes.clear();
+		bytes.limit(size);
+		return bytes;
+	}
+
+	private CharBuffer getChars(int size) {
+		if (chars.capacity() < size)
+			chars = CharBuffer.allocate(Math.max(size, 2 * chars.capacity()));
+
+		chars.clear();
+		return chars;
+	}
+}
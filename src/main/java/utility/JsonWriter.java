@@ -0,0 +1,119 @@
+package utility;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Écriture JSON en flux, sans modèle intermédiaire en mémoire
+public class JsonWriter {
+	/* ATTRIBUTES */
+	private Writer writer;
+	// Pour chaque objet ou tableau ouvert : vrai tant qu'aucun élément n'a été écrit
+	private Deque<Boolean> first = new ArrayDeque<>();
+	private boolean afterName = false;
+
+	/* CONSTRUCTOR */
+	public JsonWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	/* METHODS */
+	public JsonWriter beginObject() throws IOException {
+		separate();
+		writer.write('{');
+		first.push(true);
+		return this;
+	}
+
+	public JsonWriter endObject() throws IOException {
+		first.pop();
+		writer.write('}');
+		return this;
+	}
+
+	public JsonWriter beginArray() throws IOException {
+		separate();
+		writer.write('[');
+		first.push(true);
+		return this;
+	}
+
+	public JsonWriter endArray() throws IOException {
+		first.pop();
+		writer.write(']');
+		return this;
+	}
+
+	public JsonWriter name(String name) throws IOException {
+		separate();
+		writeString(name);
+		writer.write(':');
+		afterName = true;
+		return this;
+	}
+
+	public JsonWriter value(String value) throws IOException {
+		separate();
+		if (value == null)
+			writer.write("null");
+		else
+			writeString(value);
+		return this;
+	}
+
+	public JsonWriter value(long value) throws IOException {
+		separate();
+		writer.write(Long.toString(value));
+		return this;
+	}
+
+	public JsonWriter value(double value) throws IOException {
+		separate();
+		writer.write(Double.isFinite(value) ? Double.toString(value) : "null");
+		return this;
+	}
+
+	public JsonWriter value(boolean value) throws IOException {
+		separate();
+		writer.write(Boolean.toString(value));
+		return this;
+	}
+
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	private void separate() throws IOException {
+		if (afterName) {
+			afterName = false;
+			return;
+		}
+		if (!first.isEmpty()) {
+			if (!first.peek())
+				writer.write(',');
+			first.pop();
+			first.push(false);
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"': writer.write("\\\""); break;
+				case '\\': writer.write("\\\\"); break;
+				case '\n': writer.write("\\n"); break;
+				case '\r': writer.write("\\r"); break;
+				case '\t': writer.write("\\t"); break;
+				default:
+					if (c < 0x20)
+						writer.write(String.format("\\u%04x", (int) c));
+					else
+						writer.write(c);
+			}
+		}
+		writer.write('"');
+	}
+}
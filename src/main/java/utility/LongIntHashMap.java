@@ -0,0 +1,187 @@
+package utility;
+
+import java.util.Arrays;
+
+// Table de hachage à adressage ouvert (sondage linéaire) de clés long vers des valeurs int,
+// sans objet par entrée. Les clés négatives sont réservées.
+public class LongIntHashMap {
+	/* ATTRIBUTES */
+	private static final long EMPTY = -1L;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	/* CONSTRUCTOR */
+	public LongIntHashMap() {
+		this(16);
+	}
+
+	public LongIntHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		allocate(capacity);
+	}
+
+	/* METHODS */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public static long key(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	public static int high(long key) {
+		return (int) (key >>> 32);
+	}
+
+	public static int low(long key) {
+		return (int) key;
+	}
+
+	public int get(long key, int defaultValue) {
+		int slot = find(key);
+		return slot < 0 ? defaultValue : values[slot];
+	}
+
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	public void put(long key, int value) {
+		int slot = slotFor(key);
+
+		if (keys[slot] == EMPTY) {
+			keys[slot] = key;
+			size++;
+		}
+		values[slot] = value;
+		growIfNeeded();
+	}
+
+	// Ajoute delta à la valeur associée (0 si absente) et renvoie la nouvelle valeur
+	public int addTo(long key, int delta) {
+		int slot = slotFor(key);
+
+		if (keys[slot] == EMPTY) {
+			keys[slot] = key;
+			values[slot] = delta;
+			size++;
+			growIfNeeded();
+			return delta;
+		}
+
+		return values[slot] += delta;
+	}
+
+	public boolean remove(long key) {
+		int slot = find(key);
+
+		if (slot < 0)
+			return false;
+
+		// Suppression par décalage arrière pour garder les chaînes de sondage intactes
+		int hole = slot;
+		int next = (hole + 1) & mask;
+		while (keys[next] != EMPTY) {
+			int ideal = hash(keys[next]) & mask;
+			if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				values[hole] = values[next];
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = EMPTY;
+		size--;
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		for (int slot = 0; slot < keys.length; slot++)
+			if (keys[slot] != EMPTY)
+				consumer.accept(keys[slot], values[slot]);
+	}
+
+	// Clés présentes, dans l'ordre croissant
+	public long[] sortedKeys() {
+		long[] result = new long[size];
+		int index = 0;
+
+		for (long key : keys)
+			if (key != EMPTY)
+				result[index++] = key;
+
+		Arrays.sort(result);
+		return result;
+	}
+
+	private int find(long key) {
+		int slot = hash(key) & mask;
+
+		while (keys[slot] != EMPTY) {
+			if (keys[slot] == key)
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	private int slotFor(long key) {
+		if (key < 0)
+			throw new IllegalArgumentException("Negative keys are reserved: " + key);
+
+		int slot = hash(key) & mask;
+
+		while (keys[slot] != EMPTY && keys[slot] != key)
+			slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	private void growIfNeeded() {
+		if (size * 2 <= keys.length)
+			return;
+
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(keys.length * 2);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY) {
+				int slot = slotFor(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+				size++;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		size = 0;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	public interface EntryConsumer {
+		void accept(long key, int value);
+	}
+}
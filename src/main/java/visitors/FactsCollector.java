@@ -0,0 +1,433 @@
+package visitors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.*;
+
+import graphs.FileFacts;
+
+// Collecte en un seul parcours les méthodes déclarées et les invocations d'une unité de
+// compilation. Les types englobants et les méthodes en cours sont suivis sur deux piles,
+// ce qui évite de reparcourir l'AST par classe et par méthode et de remonter à la racine
+// pour qualifier chaque nom.
+//
+// Les types imbriqués et les énumérations ont leur propre nom (paquetage.Externe.Interne,
+// comme les bindings JDT). Les classes anonymes sont rattachées au type nommé qui les
+// englobe. Les invocations des initialiseurs sont attribuées à <init> ou <clinit>.
+//
+// Sans bindings (mode rapide), les déclarations du fichier sont aussi relevées, et chaque
+// receveur est typé syntaxiquement puis laissé en attente pour DeclarationIndex. Avec
+// bindings, chaque nom résolu vers un type du projet (type, ou classe déclarant un champ ou
+// une méthode) est relevé comme dépendance du fichier.
+public class FactsCollector extends ASTVisitor {
+	/* ATTRIBUTES */
+	private FileFacts facts;
+	private boolean resolveBindings = true;
+	private String packageName = "";
+	private Deque<TypeContext> types = new ArrayDeque<>();
+	private Deque<MethodContext> methods = new ArrayDeque<>();
+	
+	/* CONSTRUCTOR */
+	public FactsCollector(FileFacts facts) {
+		this.facts = facts;
+	}
+	
+	/* METHODS */
+	@Override
+	public boolean visit(CompilationUnit unit) {
+		resolveBindings = unit.getAST().hasResolvedBindings();
+		
+		if (unit.getPackage() != null)
+			packageName = unit.getPackage().getName().getFullyQualifiedName();
+		
+		if (!resolveBindings) {
+			facts.setPackageName(packageName);
+			
+			for (Object object : unit.imports()) {
+				ImportDeclaration importDeclaration = (ImportDeclaration) object;
+				if (!importDeclaration.isStatic())
+					facts.addImport(importDeclaration.getName().getFullyQualifiedName()
+							+ (importDeclaration.isOnDemand() ? ".*" : ""));
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public boolean visit(TypeDeclaration type) {
+		enterType(type.getName().getIdentifier(), type.bodyDeclarations(), type.getSuperclassType());
+		return true;
+	}
+	
+	@Override
+	public void endVisit(TypeDeclaration type) {
+		types.pop();
+	}
+	
+	@Override
+	public boolean visit(EnumDeclaration type) {
+		enterType(type.getName().getIdentifier(), type.bodyDeclarations(), null);
+		
+		// Les constantes sont des champs du type de l'énumération
+		if (!resolveBindings)
+			for (Object constant : type.enumConstants())
+				addField(types.peek(), ((EnumConstantDeclaration) constant).getName().getIdentifier(), 
+						types.peek().name);
+		
+		return true;
+	}
+	
+	@Override
+	public void endVisit(EnumDeclaration type) {
+		types.pop();
+	}
+	
+	@Override
+	public boolean visit(AnnotationTypeDeclaration type) {
+		enterType(type.getName().getIdentifier(), type.bodyDeclarations(), null);
+		return true;
+	}
+	
+	@Override
+	public void endVisit(AnnotationTypeDeclaration type) {
+		types.pop();
+	}
+	
+	@Override
+	public boolean visit(AnonymousClassDeclaration type) {
+		// Rattachée au type nommé englobant, mais avec ses propres champs
+		TypeContext context = new TypeContext(types.isEmpty() ? packageName : types.peek().name);
+		context.anonymous = true;
+		addFields(context, type.bodyDeclarations());
+		types.push(context);
+		return true;
+	}
+	
+	@Override
+	public void endVisit(AnonymousClassDeclaration type) {
+		types.pop();
+	}
+	
+	@Override
+	public boolean visit(MethodDeclaration method) {
+		String methodName = types.peek().name + "::" + method.getName().getIdentifier();
+		facts.addMethod(methodName);
+		methods.push(new MethodContext(methodName, true));
+		return true;
+	}
+	
+	@Override
+	public void endVisit(MethodDeclaration method) {
+		methods.pop();
+	}
+	
+	@Override
+	public boolean visit(Initializer initializer) {
+		enterInitializer(Modifier.isStatic(initializer.getModifiers()));
+		return true;
+	}
+	
+	@Override
+	public void endVisit(Initializer initializer) {
+		methods.pop();
+	}
+	
+	@Override
+	public boolean visit(FieldDeclaration field) {
+		enterInitializer(Modifier.isStatic(field.getModifiers()));
+		return true;
+	}
+	
+	@Override
+	public void endVisit(FieldDeclaration field) {
+		methods.pop();
+	}
+	
+	@Override
+	public boolean visit(SingleVariableDeclaration declaration) {
+		addLocal(declaration.getName(), declaration.getType());
+		return true;
+	}
+	
+	@Override
+	public boolean visit(VariableDeclarationStatement statement) {
+		for (Object fragment : statement.fragments())
+			addLocal(((VariableDeclarationFragment) fragment).getName(), statement.getType());
+		
+		return true;
+	}
+	
+	@Override
+	public boolean visit(VariableDeclarationExpression expression) {
+		for (Object fragment : expression.fragments())
+			addLocal(((VariableDeclarationFragment) fragment).getName(), expression.getType());
+		
+		return true;
+	}
+	
+	@Override
+	public boolean visit(MethodInvocation invocation) {
+		if (methods.isEmpty())
+			return true;
+		
+		String caller = getCaller();
+		Expression expr = invocation.getExpression();
+		String name = "::" + invocation.getName().getIdentifier();
+		
+		if (expr == null) {
+			facts.addInvocation(caller, types.peek().name + name);
+		} else if (resolveBindings) {
+			ITypeBinding type = expr.resolveTypeBinding();
+			facts.countReceiver(type != null);
+			addDependency(type);
+			// Effacement : List<String> et List<Integer> désignent la même classe
+			facts.addInvocation(caller, (type != null ? type.getErasure().getQualifiedName() : expr.toString()) + name);
+		} else {
+			String receiver = getReceiverReference(expr);
+			
+			if (receiver != null) {
+				facts.addPendingInvocation(caller, expr + name, receiver);
+			} else {
+				facts.countReceiver(false);
+				facts.addInvocation(caller, expr + name);
+			}
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public boolean visit(SimpleName name) {
+		if (!resolveBindings)
+			return false;
+		
+		IBinding binding = name.resolveBinding();
+		if (binding instanceof ITypeBinding)
+			addDependency((ITypeBinding) binding);
+		else if (binding instanceof IVariableBinding)
+			addDependency(((IVariableBinding) binding).getDeclaringClass());
+		else if (binding instanceof IMethodBinding)
+			addDependency(((IMethodBinding) binding).getDeclaringClass());
+		
+		return false;
+	}
+	
+	// Type déclaré dans les sources du projet, et ses super-types : un membre hérité peut
+	// changer de classe déclarante. Les types du JDK et des jars relèvent du classpath.
+	private void addDependency(ITypeBinding type) {
+		if (type == null)
+			return;
+		if (type.isArray())
+			type = type.getElementType();
+		
+		type = type.getErasure();
+		if (!type.isFromSource() || type.getQualifiedName().isEmpty())
+			return;
+		
+		// Déjà relevé, avec ses super-types
+		if (!facts.addDependency(type.getQualifiedName()))
+			return;
+		
+		addDependency(type.getSuperclass());
+		for (ITypeBinding superInterface : type.getInterfaces())
+			addDependency(superInterface);
+	}
+	
+	@Override
+	public boolean visit(SuperMethodInvocation invocation) {
+		if (!methods.isEmpty())
+			facts.addInvocation(getCaller(), invocation.getName().getFullyQualifiedName());
+		
+		return true;
+	}
+	
+	private void enterType(String simpleName, List<?> bodyDeclarations, Type superclass) {
+		String name = types.isEmpty() 
+				? (packageName.isEmpty() ? simpleName : packageName + "." + simpleName)
+				: types.peek().name + "." + simpleName;
+		TypeContext context = new TypeContext(name);
+		
+		addFields(context, bodyDeclarations);
+		types.push(context);
+		
+		// Avec bindings, les types déclarés servent à retrouver les fichiers qui en dépendent
+		facts.addDeclaredType(name, resolveBindings ? null : getTypeName(superclass));
+	}
+	
+	// Les types des champs ne servent qu'au typage syntaxique des receveurs
+	private void addFields(TypeContext context, List<?> bodyDeclarations) {
+		if (resolveBindings)
+			return;
+		
+		for (Object declaration : bodyDeclarations) {
+			if (!(declaration instanceof FieldDeclaration))
+				continue;
+			
+			FieldDeclaration field = (FieldDeclaration) declaration;
+			String fieldType = getTypeName(field.getType());
+			if (fieldType == null)
+				continue;
+			
+			for (Object fragment : field.fragments())
+				addField(context, ((VariableDeclarationFragment) fragment).getName().getIdentifier(), fieldType);
+		}
+	}
+	
+	private void addField(TypeContext context, String fieldName, String fieldType) {
+		context.fieldTypes.put(fieldName, fieldType);
+		
+		// Les champs des classes anonymes ne sont visibles que depuis leur corps
+		if (!context.anonymous)
+			facts.addFieldType(context.name, fieldName, fieldType);
+	}
+	
+	// Invocations hors méthode : attribuées à un initialiseur, déclaré à la première invocation
+	private void enterInitializer(boolean isStatic) {
+		methods.push(new MethodContext(types.peek().name + (isStatic ? "::<clinit>" : "::<init>"), false));
+	}
+	
+	private String getCaller() {
+		MethodContext method = methods.peek();
+		
+		if (!method.declared) {
+			facts.addMethod(method.name);
+			method.declared = true;
+		}
+		
+		return method.name;
+	}
+	
+	private void addLocal(SimpleName name, Type type) {
+		if (resolveBindings || methods.isEmpty())
+			return;
+		
+		MethodContext method = methods.peek();
+		if (method.localTypes == null)
+			method.localTypes = new HashMap<>();
+		method.localTypes.put(name.getIdentifier(), type);
+	}
+	
+	// Référence du receveur : un nom pointé tel qu'écrit (type, éventuellement suivi de
+	// champs, départagé par DeclarationIndex), puis des accès de champ séparés par '#'.
+	// Null si l'expression ne peut pas être typée sans bindings.
+	private String getReceiverReference(Expression expr) {
+		if (expr instanceof ParenthesizedExpression)
+			return getReceiverReference(((ParenthesizedExpression) expr).getExpression());
+		
+		if (expr instanceof ThisExpression) {
+			Name qualifier = ((ThisExpression) expr).getQualifier();
+			return qualifier == null ? types.peek().name : qualifier.getFullyQualifiedName();
+		}
+		
+		if (expr instanceof SimpleName) {
+			String identifier = ((SimpleName) expr).getIdentifier();
+			
+			if (isVariable(identifier))
+				return getVariableType(identifier);
+			
+			// Appel statique (Type.methode()) ou champ hérité
+			if (Character.isUpperCase(identifier.charAt(0)))
+				return identifier;
+			return types.peek().name + "#" + identifier;
+		}
+		
+		if (expr instanceof QualifiedName) {
+			// a.b.c : variable suivie de champs, ou nom pointé (paquetage, type, champs)
+			QualifiedName name = (QualifiedName) expr;
+			Name leftmost = name;
+			while (leftmost instanceof QualifiedName)
+				leftmost = ((QualifiedName) leftmost).getQualifier();
+			
+			String identifier = ((SimpleName) leftmost).getIdentifier();
+			if (!isVariable(identifier))
+				return name.getFullyQualifiedName();
+			
+			String variableType = getVariableType(identifier);
+			return variableType == null ? null 
+					: variableType + name.getFullyQualifiedName().substring(identifier.length()).replace('.', '#');
+		}
+		
+		if (expr instanceof FieldAccess) {
+			String base = getReceiverReference(((FieldAccess) expr).getExpression());
+			return base == null ? null : base + "#" + ((FieldAccess) expr).getName().getIdentifier();
+		}
+		
+		if (expr instanceof ClassInstanceCreation)
+			return getTypeName(((ClassInstanceCreation) expr).getType());
+		
+		if (expr instanceof CastExpression)
+			return getTypeName(((CastExpression) expr).getType());
+		
+		if (expr instanceof StringLiteral)
+			return "String";
+		
+		if (expr instanceof TypeLiteral)
+			return "Class";
+		
+		return null;
+	}
+	
+	// Variable locale (y compris capturée par une classe anonyme) ou champ d'un type englobant
+	private boolean isVariable(String identifier) {
+		for (MethodContext method : methods)
+			if (method.localTypes != null && method.localTypes.containsKey(identifier))
+				return true;
+		
+		for (TypeContext type : types)
+			if (type.fieldTypes.containsKey(identifier))
+				return true;
+		
+		return false;
+	}
+	
+	private String getVariableType(String identifier) {
+		for (MethodContext method : methods)
+			if (method.localTypes != null && method.localTypes.containsKey(identifier))
+				return getTypeName(method.localTypes.get(identifier));
+		
+		for (TypeContext type : types)
+			if (type.fieldTypes.containsKey(identifier))
+				return type.fieldTypes.get(identifier);
+		
+		return null;
+	}
+	
+	// Nom d'un type tel qu'écrit, sans ses arguments de type ; null pour les types primitifs,
+	// les tableaux et les jokers
+	private static String getTypeName(Type type) {
+		if (type instanceof SimpleType)
+			return ((SimpleType) type).getName().getFullyQualifiedName();
+		if (type instanceof QualifiedType)
+			return type.toString();
+		if (type instanceof ParameterizedType)
+			return getTypeName(((ParameterizedType) type).getType());
+		
+		return null;
+	}
+	
+	private static class TypeContext {
+		String name;
+		boolean anonymous;
+		Map<String, String> fieldTypes = new HashMap<>();
+		
+		public TypeContext(String name) {
+			this.name = name;
+		}
+	}
+	
+	private static class MethodContext {
+		String name;
+		boolean declared;
+		Map<String, Type> localTypes;
+		
+		public MethodContext(String name, boolean declared) {
+			this.name = name;
+			this.declared = declared;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package watch;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import parsers.SourceDiscovery;
+
+// Surveillance d'une arborescence de sources par WatchService. Chaque répertoire retenu par
+// SourceDiscovery est enregistré, y compris ceux créés en cours de route. Les événements
+// sont regroupés : un lot n'est rendu qu'après debounceMillis sans nouvel événement, ce
+// qui absorbe les rafales d'un enregistrement (fichier temporaire, renommage, écriture).
+public class SourceWatcher implements AutoCloseable {
+	/* ATTRIBUTES */
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 150;
+
+	private SourceDiscovery discovery;
+	private WatchService watchService;
+	private Map<WatchKey, Path> directories = new HashMap<>();
+	private long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+	private boolean overflowed;
+
+	/* CONSTRUCTOR */
+	public SourceWatcher(SourceDiscovery discovery) throws IOException {
+		this.discovery = discovery;
+		this.watchService = discovery.getRoot().getFileSystem().newWatchService();
+		registerTree(discovery.getRoot(), null);
+	}
+
+	/* METHODS */
+	public void setDebounceMillis(long debounceMillis) {
+		this.debounceMillis = Math.max(0, debounceMillis);
+	}
+
+	// Des événements ont été perdus pendant le dernier lot : l'appelant doit comparer
+	// lui-même l'état des fichiers (cf. WatchSession.rescan)
+	public boolean hasOverflowed() {
+		return overflowed;
+	}
+
+	// Fichiers créés, modifiés ou supprimés depuis le lot précédent ; bloque jusqu'au
+	// premier événement. null une fois la surveillance arrêtée par close().
+	public Set<Path> take() throws IOException, InterruptedException {
+		Set<Path> changed = new LinkedHashSet<>();
+		overflowed = false;
+
+		try {
+			WatchKey key = watchService.take();
+
+			while (key != null) {
+				process(key, changed);
+				key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+			}
+		} catch (ClosedWatchServiceException e) {
+			return null;
+		}
+
+		return changed;
+	}
+
+	private void process(WatchKey key, Set<Path> changed) throws IOException {
+		Path directory = directories.get(key);
+
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				overflowed = true;
+				continue;
+			}
+
+			Path child = directory.resolve((Path) event.context());
+
+			// Nouveau répertoire : ses fichiers ont pu être créés avant son enregistrement
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+					&& Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+				if (discovery.isIncludedDirectory(child))
+					registerTree(child, changed);
+			} else {
+				changed.add(child);
+			}
+		}
+
+		// Répertoire supprimé : la clé n'est plus valide
+		if (!key.reset())
+			directories.remove(key);
+	}
+
+	private void registerTree(Path start, Set<Path> existingFiles) throws IOException {
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+					throws IOException {
+				if (!discovery.isIncludedDirectory(directory))
+					return FileVisitResult.SKIP_SUBTREE;
+
+				WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+				directories.put(key, directory);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+				if (existingFiles != null)
+					existingFiles.add(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFileFailed(Path file, IOException e) {
+				return FileVisitResult.CONTINUE; // supprimé pendant le parcours
+			}
+		});
+	}
+
+	@Override
+	public void close() throws IOException {
+		watchService.close();
+	}
+}
@@ -0,0 +1,348 @@
+package watch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import cache.FactCache;
+import graphs.CallGraph;
+import graphs.DeclarationIndex;
+import graphs.FileFacts;
+import graphs.IncrementalCoupling;
+import parsers.ClasspathResolver;
+import parsers.SourceDiscovery;
+import parsers.SourceFile;
+
+// Analyse continue d'un projet : le graphe d'appel est construit une fois (à partir du
+// cache des faits), puis chaque lot de fichiers modifiés est réanalysé seul. Les faits que
+// ces fichiers avaient apportés sont retirés du graphe, les nouveaux ajoutés ; le couplage
+// suit ces variations (cf. IncrementalCoupling) et seules les lignes des classes dont un
+// couple a changé sont relues.
+//
+// Un fichier dont les déclarations changent peut changer la résolution des receveurs des
+// autres fichiers. En mode rapide (types, super-classes, champs), ceux-ci sont résolus à
+// nouveau à partir de l'index, sans être réanalysés. Avec les bindings, quand des classes
+// apparaissent ou disparaissent, les fichiers qui appelaient ces classes sont réanalysés.
+// Une signature modifiée sans changement de classes n'entraîne pas cette réanalyse.
+public class WatchSession implements AutoCloseable {
+	/* ATTRIBUTES */
+	private boolean resolveBindings;
+	private SourceDiscovery discovery;
+	private FactCache cache;
+	private CallGraph graph;
+	// Faits ajoutés au graphe pour chaque fichier (résolus, en mode rapide)
+	private Map<String, FileFacts> appliedFacts = new HashMap<>();
+	private Map<String, Map<String, Double>> couplings;
+	private SourceWatcher watcher;
+	private boolean stopped;
+	private boolean closed;
+
+	/* CONSTRUCTOR */
+	public WatchSession(String projectPath, boolean resolveBindings, ClasspathResolver classpath) throws IOException {
+		this.resolveBindings = resolveBindings;
+		this.discovery = new SourceDiscovery(projectPath);
+		this.cache = CallGraph.getFactCache(projectPath, resolveBindings, classpath);
+		this.graph = CallGraph.createCallGraph(projectPath, cache, resolveBindings, classpath);
+
+		// Le cache contient maintenant les faits de tous les fichiers du projet
+		Collection<FileFacts> allFacts = cache.getAllFacts();
+		DeclarationIndex index = resolveBindings ? null : DeclarationIndex.build(allFacts);
+		for (FileFacts facts : allFacts)
+			appliedFacts.put(facts.getSourcePath(), resolveBindings ? facts : index.resolve(facts));
+
+		graph.getIncrementalCoupling();
+		this.couplings = graph.calculateCouplingBetweenAllClasses();
+	}
+
+	/* METHODS */
+	public CallGraph getGraph() {
+		return graph;
+	}
+
+	public Map<String, Map<String, Double>> getCouplings() {
+		return couplings;
+	}
+
+	// Boucle de surveillance : rend la main quand stop() est appelé depuis un autre thread
+	public void watch(Listener listener) throws IOException, InterruptedException {
+		try (SourceWatcher sourceWatcher = new SourceWatcher(discovery)) {
+			// stop() a pu être appelé pendant le parcours de l'arborescence par SourceWatcher
+			synchronized (this) {
+				if (stopped)
+					return;
+				watcher = sourceWatcher;
+			}
+
+			Set<Path> changedPaths;
+			while ((changedPaths = sourceWatcher.take()) != null) {
+				if (sourceWatcher.hasOverflowed())
+					changedPaths.addAll(rescan());
+
+				Update update = update(changedPaths);
+				if (!update.isEmpty())
+					listener.updated(update);
+			}
+		}
+	}
+
+	public synchronized void stop() throws IOException {
+		stopped = true;
+		if (watcher != null)
+			watcher.close();
+	}
+
+	// Fichiers dont les métadonnées ne correspondent plus au cache, et fichiers disparus
+	public List<Path> rescan() throws IOException {
+		List<Path> changed = new ArrayList<>();
+		Set<String> existing = new HashSet<>();
+
+		for (SourceFile sourceFile : discovery.discover()) {
+			String path = sourceFile.getPath().toString();
+			existing.add(path);
+
+			if (cache.get(path, sourceFile.getSize(), sourceFile.getLastModified()) == null)
+				changed.add(sourceFile.getPath());
+		}
+
+		for (String path : appliedFacts.keySet())
+			if (!existing.contains(path))
+				changed.add(Paths.get(path));
+
+		return changed;
+	}
+
+	public Update update(Collection<Path> changedPaths) throws IOException {
+		// Un lot en cours se termine avant l'enregistrement du cache par close()
+		synchronized (cache) {
+			return updateFiles(changedPaths);
+		}
+	}
+
+	private Update updateFiles(Collection<Path> changedPaths) throws IOException {
+		long start = System.nanoTime();
+		List<String> modified = new ArrayList<>();
+		List<String> deleted = new ArrayList<>();
+
+		for (Path changedPath : changedPaths) {
+			Path absolute = changedPath.toAbsolutePath().normalize();
+			String path = absolute.toString();
+			File file = absolute.toFile();
+
+			if (file.isFile() && discovery.isSourceFile(absolute)) {
+				// Événement sans effet sur le contenu (date ou taille inchangées)
+				if (appliedFacts.containsKey(path) && cache.get(path, file.length(), file.lastModified()) != null)
+					continue;
+				modified.add(path);
+			} else if (appliedFacts.containsKey(path)) {
+				addDeleted(path, deleted);
+			} else {
+				// Répertoire supprimé ou déplacé hors de l'arborescence : un seul événement pour
+				// tous les fichiers qu'il contenait
+				String prefix = path + File.separator;
+				for (String appliedPath : appliedFacts.keySet())
+					if (appliedPath.startsWith(prefix) && !new File(appliedPath).isFile())
+						addDeleted(appliedPath, deleted);
+			}
+		}
+
+		if (modified.isEmpty() && deleted.isEmpty())
+			return new Update(modified, deleted, Collections.emptyList(), Collections.emptyMap(), Collections.emptySet(),
+					System.nanoTime() - start);
+
+		Map<String, FileFacts> parsed = graph.extractFacts(modified);
+		boolean declarationsChanged = false;
+
+		// Fichiers dont des receveurs sont typés d'après les déclarations modifiées
+		if (resolveBindings) {
+			List<FileFacts> previousFacts = new ArrayList<>();
+			for (String path : modified)
+				if (cache.get(path) != null)
+					previousFacts.add(cache.get(path));
+			for (String path : deleted)
+				previousFacts.add(cache.get(path));
+
+			List<String> dependents = cache.findDependents(previousFacts, parsed.values());
+			if (!dependents.isEmpty())
+				parsed.putAll(graph.extractFacts(dependents));
+		}
+
+		for (String path : deleted) {
+			declarationsChanged |= !cache.get(path).getDeclaredTypes().isEmpty();
+			cache.remove(path);
+		}
+
+		for (Map.Entry<String, FileFacts> entry : parsed.entrySet()) {
+			File file = new File(entry.getKey());
+			FileFacts previous = cache.get(entry.getKey());
+			declarationsChanged |= previous == null || !sameDeclarations(previous, entry.getValue());
+			cache.put(entry.getKey(), FactCache.hashFile(file), file.length(), file.lastModified(), entry.getValue());
+		}
+
+		Map<String, FileFacts> resolved = parsed;
+		if (!resolveBindings) {
+			DeclarationIndex index = DeclarationIndex.build(cache.getAllFacts());
+			resolved = new HashMap<>();
+
+			Collection<FileFacts> toResolve = declarationsChanged ? cache.getAllFacts() : parsed.values();
+			for (FileFacts facts : toResolve)
+				resolved.put(facts.getSourcePath(), index.resolve(facts));
+		}
+
+		// Retrait des anciens faits, ajout des nouveaux
+		for (String path : deleted)
+			replaceFacts(path, null);
+		for (Map.Entry<String, FileFacts> entry : resolved.entrySet())
+			replaceFacts(entry.getKey(), entry.getValue());
+
+		return refreshCouplings(modified, deleted, start);
+	}
+
+	private static void addDeleted(String path, List<String> deleted) {
+		if (!deleted.contains(path))
+			deleted.add(path);
+	}
+
+	private void replaceFacts(String path, FileFacts facts) {
+		FileFacts previous = appliedFacts.get(path);
+
+		// Fichier résolu à nouveau mais inchangé : rien à retirer ni à ajouter
+		if (previous != null && facts != null && sameInvocations(previous, facts)
+				&& previous.getMethods().equals(facts.getMethods()))
+			return;
+
+		if (previous != null) {
+			graph.removeFacts(previous);
+			appliedFacts.remove(path);
+		}
+
+		if (facts != null) {
+			graph.addFacts(facts);
+			appliedFacts.put(path, facts);
+		}
+	}
+
+	private Update refreshCouplings(List<String> modified, List<String> deleted, long start) {
+		IncrementalCoupling coupling = graph.getIncrementalCoupling();
+		List<IncrementalCoupling.PairChange> changedPairs = coupling.commit();
+		Set<String> classes = graph.getNormalizedClassNames();
+		Set<String> removedClasses = new TreeSet<>(couplings.keySet());
+		removedClasses.removeAll(classes);
+
+		// Lignes à relire : sources des couples modifiés et nouvelles classes. Une classe
+		// disparue n'est plus appelée : les couples qui la visaient figurent dans changedPairs.
+		Set<String> rows = new HashSet<>();
+		for (IncrementalCoupling.PairChange change : changedPairs)
+			rows.add(change.getSource());
+		for (String className : classes)
+			if (!couplings.containsKey(className))
+				rows.add(className);
+		rows.retainAll(classes);
+
+		Map<String, Map<String, Double>> changedRows = new TreeMap<>();
+		for (String className : rows) {
+			Map<String, Double> row = coupling.getRow(className);
+			if (!row.equals(couplings.put(className, row)))
+				changedRows.put(className, row);
+		}
+
+		couplings.keySet().removeAll(removedClasses);
+		return new Update(modified, deleted, changedPairs, changedRows, removedClasses, System.nanoTime() - start);
+	}
+
+	private static boolean sameDeclarations(FileFacts previous, FileFacts facts) {
+		return previous.getPackageName().equals(facts.getPackageName())
+				&& previous.getDeclaredTypes().equals(facts.getDeclaredTypes())
+				&& previous.getSuperTypes().equals(facts.getSuperTypes())
+				&& previous.getFieldTypes().equals(facts.getFieldTypes());
+	}
+
+	private static boolean sameInvocations(FileFacts previous, FileFacts facts) {
+		if (previous.getNbInvocations() != facts.getNbInvocations())
+			return false;
+
+		for (int i = 0; i < facts.getNbInvocations(); i++)
+			if (!previous.getCaller(i).equals(facts.getCaller(i)) || !previous.getCallee(i).equals(facts.getCallee(i)))
+				return false;
+
+		return true;
+	}
+
+	// Arrête la surveillance et enregistre le cache des faits, mis à jour au fil des lots
+	@Override
+	public void close() throws IOException {
+		stop();
+
+		// close() est appelé par le crochet d'arrêt du processus et à la sortie de watch()
+		synchronized (cache) {
+			if (closed)
+				return;
+			closed = true;
+			cache.save();
+		}
+	}
+
+	public interface Listener {
+		void updated(Update update);
+	}
+
+	public static class Update {
+		private List<String> modifiedFiles;
+		private List<String> deletedFiles;
+		private List<IncrementalCoupling.PairChange> changedPairs;
+		private Map<String, Map<String, Double>> changedRows;
+		private Set<String> removedClasses;
+		private long nanos;
+
+		public Update(List<String> modifiedFiles, List<String> deletedFiles,
+				List<IncrementalCoupling.PairChange> changedPairs, Map<String, Map<String, Double>> changedRows,
+				Set<String> removedClasses, long nanos) {
+			this.modifiedFiles = modifiedFiles;
+			this.deletedFiles = deletedFiles;
+			this.changedPairs = changedPairs;
+			this.changedRows = changedRows;
+			this.removedClasses = removedClasses;
+			this.nanos = nanos;
+		}
+
+		public boolean isEmpty() {
+			return modifiedFiles.isEmpty() && deletedFiles.isEmpty();
+		}
+
+		public List<String> getModifiedFiles() {
+			return modifiedFiles;
+		}
+
+		public List<String> getDeletedFiles() {
+			return deletedFiles;
+		}
+
+		// Couples dont le couplage a changé, avec leurs valeurs avant et après le lot
+		public List<IncrementalCoupling.PairChange> getChangedPairs() {
+			return changedPairs;
+		}
+
+		// Nouvelle ligne de couplage de chaque classe dont la ligne a changé
+		public Map<String, Map<String, Double>> getChangedRows() {
+			return changedRows;
+		}
+
+		public Set<String> getRemovedClasses() {
+			return removedClasses;
+		}
+
+		public double getMillis() {
+			return nanos / 1e6;
+		}
+	}
+}